@@ -0,0 +1,81 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// small benchmark harness - JMH refuses to generate benchmarks for classes in the default package
+class Benchmark {
+
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+    private static final int ITERATIONS = 5;
+    private static final int BATCH_SIZE = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // results are folded in here so the JIT can't drop the work
+    @SuppressWarnings("unused")
+    private static volatile long sink;
+
+    private final String filter;
+
+    Benchmark(String filter) {
+        this.filter = filter;
+        System.out.println(String.format("%-44s %14s %8s %12s %10s",
+                "Benchmark", "ns/op", "error", "B/op", "MB/s"));
+    }
+
+    void run(String name, Op op) {
+        if (!name.contains(filter)) return;
+
+        int invocation = 0;
+        long result = 0;
+
+        // warm up
+        long warmupStart = System.nanoTime();
+        while (System.nanoTime() - warmupStart < WARMUP_NANOS) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                result += op.run(invocation++);
+            }
+        }
+
+        double[] nanosPerOp = new double[ITERATIONS];
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            long ops = 0;
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    result += op.run(invocation++);
+                }
+                ops += BATCH_SIZE;
+            } while ((elapsed = System.nanoTime() - start) < ITERATION_NANOS);
+
+            totalBytes += allocatedBytes() - bytesBefore;
+            totalOps += ops;
+            totalNanos += elapsed;
+            nanosPerOp[iteration] = (double) elapsed / ops;
+        }
+        sink = result;
+
+        double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+        double variance = Arrays.stream(nanosPerOp).map(value -> (value - mean) * (value - mean)).sum()
+                / (ITERATIONS - 1);
+        double bytesPerOp = (double) totalBytes / totalOps;
+        double megabytesPerSecond = totalBytes / (totalNanos / 1e9) / (1024 * 1024);
+        System.out.println(String.format("%-44s %14.1f %7.1f%% %12.1f %10.1f",
+                name, mean, 100 * Math.sqrt(variance) / mean, bytesPerOp, megabytesPerSecond));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    interface Op {
+
+        long run(int invocation);
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.function.Supplier;
+
+// usage: Benchmarks [filter] - runs every benchmark whose name contains the filter
+public class Benchmarks {
+
+    // power of two, so invocation counts can wrap around safely
+    private static final int PREPARED_GAMES = 64;
+
+    public static void main(String[] args) throws IOException {
+        Benchmark benchmark = new Benchmark(args.length > 0 ? args[0] : "");
+
+        // full games with the Runner deck mix
+        benchmark.run("game.Random", fullGame(RandomStrategy::new));
+        benchmark.run("game.BulkNaive", fullGame(BulkNaiveStrategy::new));
+        benchmark.run("game.SlimNaive", fullGame(SlimNaiveStrategy::new));
+        benchmark.run("game.DeckNaive", fullGame(DeckNaiveStrategy::new));
+        benchmark.run("game.Random.lazyShuffle", fullGame(RandomStrategy::new, true));
+        Path traceDirectory = Files.createTempDirectory("trace");
+        try (TraceRecorder traceRecorder = new TraceRecorder(traceDirectory)) {
+            benchmark.run("game.Random.traced", fullGame(RandomStrategy::new, traceRecorder));
+        }
+        deleteDirectory(traceDirectory);
+
+        // the flat-array engine, one batch of games per op - divide by the batch for a game.Random comparison
+        benchmark.run("batch.Random.x" + PREPARED_GAMES, invocation -> Runner.addDeck(new BatchEngine.Builder())
+                .addPlayer("A", new RandomStrategy())
+                .addPlayer("B", new RandomStrategy())
+                .addPlayer("C", new RandomStrategy())
+                .setSeed(invocation)
+                .setBatchSize(PREPARED_GAMES)
+                .run(PREPARED_GAMES, 10, 10, 10)
+                .getTotalGames());
+
+        // single cards on a game at the start of the first turn
+        benchmark.run("card.setUp", invocation -> prepareGame(invocation, Card.ARTICHOKE).getRemainingGardenSize());
+        for (Card card : Card.values()) {
+            Game[] games = prepareGames(card);
+            benchmark.run("card.canBePlayed." + card.name(),
+                    invocation -> card.canBePlayed(games[invocation & (PREPARED_GAMES - 1)]) ? 1 : 0);
+        }
+        for (Card card : Card.values()) {
+            benchmark.run("card.playCard." + card.name(), invocation -> playCard(prepareGame(invocation, card), card));
+        }
+
+        // player checks made several times per turn
+        Game[] games = prepareGames(Card.ONION);
+        benchmark.run("player.hasCardsToPlay", invocation -> {
+            Game game = games[invocation & (PREPARED_GAMES - 1)];
+            return game.getCurrentPlayer().hasCardsToPlay(game) ? 1 : 0;
+        });
+        benchmark.run("player.getArtichokeRate",
+                invocation -> (long) (games[invocation & (PREPARED_GAMES - 1)].getCurrentPlayer().getArtichokeRate() * 100));
+
+        // look-ahead state copies on the first turn
+        GameSnapshot snapshot = new GameSnapshot();
+        benchmark.run("game.snapshot", invocation -> {
+            games[invocation & (PREPARED_GAMES - 1)].snapshot(snapshot);
+            return invocation;
+        });
+        benchmark.run("game.restore", invocation -> {
+            Game game = games[invocation & (PREPARED_GAMES - 1)];
+            game.snapshot(snapshot);
+            game.restore(snapshot);
+            return game.getRemainingGardenSize();
+        });
+        Game[] undoGames = prepareGames(Card.ONION);
+        for (Game game : undoGames) {
+            game.enableUndo();
+        }
+        Action[] harvests = new Action[Card.count()];
+        for (Card card : Card.values()) {
+            harvests[card.ordinal()] = new Action(Action.Type.HARVEST, card);
+        }
+        benchmark.run("game.applyUndo", invocation -> {
+            Game game = undoGames[invocation & (PREPARED_GAMES - 1)];
+            game.apply(harvests[game.getGarden().getFirst().ordinal()]);
+            game.undo();
+            return game.getRemainingGardenSize();
+        });
+
+        // strategy decisions on the first turn
+        for (Strategy strategy : new Strategy[]{new RandomStrategy(), new BulkNaiveStrategy()}) {
+            benchmark.run("strategy." + strategy.getClass().getSimpleName() + ".chooseNextAction", invocation -> {
+                Action action = strategy.chooseNextAction(games[invocation & (PREPARED_GAMES - 1)]);
+                return action == null ? 0 : action.getCard().ordinal();
+            });
+        }
+
+        // stats for one finished game
+        StatsTracker statsTracker = new StatsTracker();
+        benchmark.run("stats.gameOver", invocation -> {
+            statsTracker.gameOver(games[invocation & (PREPARED_GAMES - 1)]);
+            return invocation;
+        });
+    }
+
+    private static Benchmark.Op fullGame(Supplier<Strategy> strategy, Logger ... loggers) {
+        return fullGame(strategy, false, loggers);
+    }
+
+    private static Benchmark.Op fullGame(Supplier<Strategy> strategy, boolean lazyShuffle, Logger ... loggers) {
+        StatsTracker statsTracker = new StatsTracker();
+        return invocation -> {
+            Game.Builder builder = Runner.addDeck(new Game.Builder())
+                    .addPlayer(new Player("A", strategy.get()))
+                    .addPlayer(new Player("B", strategy.get()))
+                    .addPlayer(new Player("C", strategy.get()))
+                    .addLogger(statsTracker)
+                    .setSeed(invocation);
+            if (lazyShuffle) builder.lazyShuffle();
+            for (Logger logger : loggers) {
+                builder.addLogger(logger);
+            }
+            builder.start(10, 10, 10);
+            return invocation;
+        };
+    }
+
+    private static Game[] prepareGames(Card card) {
+        Game[] games = new Game[PREPARED_GAMES];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = prepareGame(i, card);
+        }
+        return games;
+    }
+
+    // first player's turn with two copies of the card in hand and one in discard, so most cards are playable
+    private static Game prepareGame(long seed, Card card) {
+        Game game = Runner.addDeck(new Game.Builder())
+                .addPlayer(new Player("A", new RandomStrategy()))
+                .addPlayer(new Player("B", new RandomStrategy()))
+                .addPlayer(new Player("C", new RandomStrategy()))
+                .setSeed(seed)
+                .build(10, 10, 10);
+        game.refillGarden();
+        game.nextPlayer();
+        game.getCurrentPlayer().addToHand(card);
+        game.getCurrentPlayer().addToHand(card);
+        game.getCurrentPlayer().addToDiscard(card);
+        return game;
+    }
+
+    // same steps as a PLAY action in Player.takeTurn
+    private static long playCard(Game game, Card card) {
+        if (card.canBePlayed(game)) {
+            game.getCurrentPlayer().removeFromHand(card);
+            game.getCurrentPlayer().addToDiscard(card);
+            card.playCard(game);
+        }
+        return game.getRemainingGardenSize();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
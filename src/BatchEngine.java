@@ -0,0 +1,741 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// plays many games of the built-in cards and rule-based strategies at once, with every game's state in flat
+// arrays - card ordinals as bytes, zone counts as ints - and each game advanced one turn per pass over the batch.
+// Same rules and strategies as Game, but its own random draws, so results match statistically, not game by game
+class BatchEngine {
+
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final int REFILL_GARDEN_SIZE = 5;
+    private static final int REFILL_HAND_SIZE = 5;
+    private static final int GARDEN_CAPACITY = 8;
+    private static final int NONE = -1;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // cards by ordinal, so rules can switch on ints
+    private static final int CARDS = Card.count();
+    private static final int ARTICHOKE = Card.ARTICHOKE.ordinal();
+    private static final int POTATO = Card.POTATO.ordinal();
+    private static final int CARROT = Card.CARROT.ordinal();
+    private static final int BROCCOLI_V1 = Card.BROCCOLI_V1.ordinal();
+    private static final int BROCCOLI_V2 = Card.BROCCOLI_V2.ordinal();
+    private static final int ONION = Card.ONION.ordinal();
+    private static final int BANANA = Card.BANANA.ordinal();
+    private static final int OLD_BANANA = Card.OLD_BANANA.ordinal();
+    private static final int AVOCADO = Card.AVOCADO.ordinal();
+    private static final int RADISH = Card.RADISH.ordinal();
+    private static final int LEMON = Card.LEMON.ordinal();
+    private static final int PEAR_V1 = Card.PEAR_V1.ordinal();
+    private static final int POTATO_V2 = Card.POTATO_V2.ordinal();
+    private static final int TRADE = Card.TRADE.ordinal();
+    private static final CompostAction[] COMPOST = new CompostAction[CARDS];
+    private static final boolean[] HARVEST_TO_DISCARD = new boolean[CARDS];
+
+    static {
+        for (Card card : Card.values()) {
+            COMPOST[card.ordinal()] = card.getCompostAction();
+            HARVEST_TO_DISCARD[card.ordinal()] = card.getHarvestAction() == HarvestAction.ADD_TO_DISCARD;
+        }
+    }
+
+    // set up - one entry per player in the order added, play orders as card ordinal * 2 + 1 for plays
+    private final String[] names;
+    private final int[][] playOrders;
+    private final byte[] startingDeck;
+    private final long masterSeed;
+    private final int maxTurns;
+    private final int batchSize;
+    private final int players;
+    private final int capacity;
+
+    // game state, indexed by game or by game * players + seat
+    private final byte[] gardenDeck;
+    private final int[] gardenDeckHead;
+    private final int[] gardenDeckSize;
+    private final byte[] garden;
+    private final int[] gardenSize;
+    private final int[] currentSeat;
+    private final int[] turnCounter;
+    private final boolean[] hasHarvested;
+    private final boolean[] finished;
+    private final long[] random;
+
+    // player state
+    private final int[] seatPlayer;
+    private final int[] hand;
+    private final int[] handSize;
+    private final int[] discard;
+    private final int[] discardSize;
+    private final byte[] deck;
+    private final int[] deckHead;
+    private final int[] deckSize;
+    private final int[] deckArtichokes;
+    private final int[] turnsTaken;
+
+    // opponents a card can target, in turn order
+    private final int[] targets;
+
+    private BatchEngine(List<String> names, List<int[]> playOrders, List<Card> startingDeck, int[] startingDeckSizes,
+                        long masterSeed, int maxTurns, int batchSize) {
+        this.names = names.toArray(new String[0]);
+        this.playOrders = playOrders.toArray(new int[0][]);
+        this.startingDeck = new byte[startingDeck.size()];
+        for (int i = 0; i < this.startingDeck.length; i++) {
+            this.startingDeck[i] = (byte) startingDeck.get(i).ordinal();
+        }
+        this.masterSeed = masterSeed;
+        this.maxTurns = maxTurns;
+        this.batchSize = batchSize;
+        this.players = names.size();
+
+        // cards are never created, so no zone ever holds more than every card in the game
+        int totalCards = startingDeck.size();
+        for (int size : startingDeckSizes) {
+            totalCards += size;
+        }
+        this.capacity = Integer.highestOneBit(Math.max(1, totalCards - 1)) << 1;
+
+        gardenDeck = new byte[batchSize * capacity];
+        gardenDeckHead = new int[batchSize];
+        gardenDeckSize = new int[batchSize];
+        garden = new byte[batchSize * GARDEN_CAPACITY];
+        gardenSize = new int[batchSize];
+        currentSeat = new int[batchSize];
+        turnCounter = new int[batchSize];
+        hasHarvested = new boolean[batchSize];
+        finished = new boolean[batchSize];
+        random = new long[batchSize];
+
+        int seats = batchSize * players;
+        seatPlayer = new int[seats];
+        hand = new int[seats * CARDS];
+        handSize = new int[seats];
+        discard = new int[seats * CARDS];
+        discardSize = new int[seats];
+        deck = new byte[seats * capacity];
+        deckHead = new int[seats];
+        deckSize = new int[seats];
+        deckArtichokes = new int[seats];
+        turnsTaken = new int[seats];
+        targets = new int[players];
+    }
+
+    // plays game indexes 0 until numberOfGames, batch by batch
+    StatsTracker run(int numberOfGames, int ... startingDeckSizes) {
+        if (startingDeckSizes.length != players) {
+            throw new IllegalStateException("Number of deck sizes not equal to number of players");
+        }
+
+        StatsTracker statsTracker = new StatsTracker();
+        for (int first = 0; first < numberOfGames; first += batchSize) {
+            int games = Math.min(batchSize, numberOfGames - first);
+            for (int g = 0; g < games; g++) {
+                startGame(g, first + g, startingDeckSizes);
+            }
+
+            // one turn of every unfinished game per pass
+            int active = games;
+            while (active > 0) {
+                for (int g = 0; g < games; g++) {
+                    if (finished[g]) continue;
+                    if (takeTurn(g)) {
+                        gameOver(g, statsTracker);
+                    } else {
+                        refillGarden(g);
+                        if (turnCounter[g] < maxTurns) continue;
+                        statsTracker.gameStalled();
+                    }
+                    finished[g] = true;
+                    active --;
+                }
+            }
+        }
+        return statsTracker;
+    }
+
+    private void startGame(int g, int gameIndex, int[] startingDeckSizes) {
+        random[g] = Randoms.seedFor(masterSeed, gameIndex);
+
+        // shuffle seats, then the garden deck
+        int base = g * players;
+        for (int seat = 0; seat < players; seat++) {
+            seatPlayer[base + seat] = seat;
+        }
+        for (int i = players; i > 1; i--) {
+            int j = nextInt(g, i);
+            int temp = seatPlayer[base + i - 1];
+            seatPlayer[base + i - 1] = seatPlayer[base + j];
+            seatPlayer[base + j] = temp;
+        }
+
+        gardenDeckHead[g] = 0;
+        gardenDeckSize[g] = startingDeck.length;
+        System.arraycopy(startingDeck, 0, gardenDeck, g * capacity, startingDeck.length);
+        shuffle(gardenDeck, g * capacity, gardenDeckHead[g], gardenDeckSize[g], g);
+
+        // starting decks go by seat, as in Game.Builder
+        for (int seat = 0; seat < players; seat++) {
+            int p = base + seat;
+            for (int card = 0; card < CARDS; card++) {
+                hand[p * CARDS + card] = 0;
+                discard[p * CARDS + card] = 0;
+            }
+            handSize[p] = 0;
+            discardSize[p] = 0;
+            deckHead[p] = 0;
+            deckSize[p] = startingDeckSizes[seat];
+            deckArtichokes[p] = startingDeckSizes[seat];
+            for (int i = 0; i < startingDeckSizes[seat]; i++) {
+                deck[p * capacity + i] = (byte) ARTICHOKE;
+            }
+            turnsTaken[p] = 0;
+            drawHand(g, p);
+        }
+
+        gardenSize[g] = 0;
+        currentSeat[g] = NONE;
+        turnCounter[g] = 0;
+        hasHarvested[g] = false;
+        finished[g] = false;
+        refillGarden(g);
+    }
+
+    private boolean takeTurn(int g) {
+        currentSeat[g] = (currentSeat[g] + 1) % players;
+        turnCounter[g] ++;
+        int p = g * players + currentSeat[g];
+        turnsTaken[p] ++;
+
+        // plant a card if your hand is all Artichokes at start of turn
+        if (handSize[p] == hand[p * CARDS + ARTICHOKE]) {
+            addToDiscard(p, drawFromGardenDeck(g));
+        }
+
+        // take actions until none left
+        int action;
+        while ((action = chooseNextAction(g, p)) != NONE) {
+            int card = action >> 1;
+            if ((action & 1) == 0) {
+                removeFromGarden(g, card);
+                if (HARVEST_TO_DISCARD[card]) {
+                    addToDiscard(p, card);
+                } else {
+                    addToHand(p, card);
+                }
+                hasHarvested[g] = true;
+            } else {
+                removeFromHand(p, card);
+                addToDiscard(p, card);
+                playCard(g, p, card);
+            }
+        }
+        hasHarvested[g] = false;
+
+        // redraw hand
+        for (int card = 0; card < CARDS; card++) {
+            discard[p * CARDS + card] += hand[p * CARDS + card];
+            hand[p * CARDS + card] = 0;
+        }
+        discardSize[p] += handSize[p];
+        handSize[p] = 0;
+        drawHand(g, p);
+
+        return hand[p * CARDS + ARTICHOKE] == 0;
+    }
+
+    private void gameOver(int g, StatsTracker statsTracker) {
+        int base = g * players;
+        int winner = base + currentSeat[g];
+        int length = turnsTaken[winner];
+        int position = 1;
+        for (int p = base; p < base + players; p++) {
+            if (p != winner && turnsTaken[p] >= length) position ++;
+        }
+
+        statsTracker.gameOver(names[seatPlayer[winner]], length, position,
+                StatsTracker.rateBucket(artichokeRate(winner)), gardenSize[g] + gardenDeckSize[g]);
+        for (int i = 1; i < players; i++) {
+            statsTracker.addDeckArtichokeRate(StatsTracker.rateBucket(artichokeRate(base + (currentSeat[g] + i) % players)));
+        }
+    }
+
+    // strategies
+
+    private int chooseNextAction(int g, int p) {
+        int[] playOrder = playOrders[seatPlayer[p]];
+        boolean canHarvest = !hasHarvested[g] && gardenSize[g] > 0;
+
+        // check the pick order for valid actions
+        if (playOrder != null) {
+            for (int action : playOrder) {
+                int card = action >> 1;
+                if ((action & 1) == 0) {
+                    if (canHarvest && gardenContains(g, card)) return action;
+                } else if (hand[p * CARDS + card] > 0 && canBePlayed(g, p, card)) {
+                    return action;
+                }
+            }
+        }
+
+        // random action - harvest a random garden card, if possible
+        if (canHarvest) return garden[g * GARDEN_CAPACITY + nextInt(g, gardenSize[g])] << 1;
+
+        // each playable card in hand equally likely
+        int choice = NONE;
+        int seen = 0;
+        for (int card = 0; card < CARDS; card++) {
+            int count = hand[p * CARDS + card];
+            if (count == 0 || !canBePlayed(g, p, card)) continue;
+            seen += count;
+            if (nextInt(g, seen) < count) choice = card;
+        }
+        return choice == NONE ? NONE : choice << 1 | 1;
+    }
+
+    // the first targets are the candidates - rule-based strategies go for the lowest Artichoke rate
+    private int chooseOpponent(int g, int p, int candidates) {
+        if (candidates == 1) return targets[0];
+        if (playOrders[seatPlayer[p]] == null) return targets[nextInt(g, candidates)];
+
+        int leader = targets[0];
+        float bestRate = artichokeRate(leader);
+        for (int i = 1; i < candidates; i++) {
+            float rate = artichokeRate(targets[i]);
+            if (rate < bestRate) {
+                leader = targets[i];
+                bestRate = rate;
+            }
+        }
+        return leader;
+    }
+
+    // the Artichoke if there is one, otherwise any card - as for the top of the deck or a gift to an opponent
+    private int pickArtichokeOrRandom(int g, int p) {
+        if (handSize[p] > 1 && hand[p * CARDS + ARTICHOKE] > 0) return ARTICHOKE;
+        return randomFromHand(g, p, false);
+    }
+
+    // rules
+
+    private boolean canBePlayed(int g, int p, int card) {
+        int nonArtichokes = handSize[p] - hand[p * CARDS + ARTICHOKE];
+        if (card == POTATO || card == AVOCADO) return deckSize[p] > 0 || discardSize[p] > 0;
+        if (card == CARROT) return gardenSize[g] > 0;
+        if (card == BROCCOLI_V1) return handSize[p] >= 2 && (deckSize[p] > 0 || discardSize[p] > 0);
+        if (card == BROCCOLI_V2) return hand[p * CARDS + ARTICHOKE] > 2;
+        if (card == ONION || card == TRADE) return nonArtichokes >= 2 && hasOpponentWithHand(g, p);
+        if (card == BANANA) return deckSize[p] > 0;
+        if (card == OLD_BANANA) return handSize[p] >= 2 && hasOpponentWithHand(g, p);
+        if (card == RADISH) return hand[p * CARDS + ARTICHOKE] > 0 && discard[p * CARDS + RADISH] > 0;
+        if (card == LEMON) return hasOpponentWithDeckOrDiscard(g, p);
+        if (card == PEAR_V1) return nonArtichokes >= 2 && hand[p * CARDS + ARTICHOKE] > 0;
+        return card == POTATO_V2;
+    }
+
+    private void playCard(int g, int p, int card) {
+        if (card == POTATO) {
+            compost(g, p, drawTop(g, p));
+
+        } else if (card == CARROT) {
+            addToDiscard(p, garden[g * GARDEN_CAPACITY + --gardenSize[g]]);
+
+        } else if (card == BROCCOLI_V1) {
+            int drawn = drawTop(g, p);
+            int top = pickArtichokeOrRandom(g, p);
+            removeFromHand(p, top);
+            addToTopOfDeck(p, top);
+            addToHand(p, drawn);
+
+        } else if (card == BROCCOLI_V2) {
+            removeFromHand(p, ARTICHOKE);
+
+        } else if (card == ONION) {
+            int opponent = chooseOpponent(g, p, opponentsWithHand(g, p));
+            compost(g, opponent, removeFromHand(opponent, randomFromHand(g, opponent, false)));
+            compost(g, p, removeFromHand(p, randomFromHand(g, p, false)));
+
+        } else if (card == BANANA) {
+            while (deckSize[p] > 0) {
+                int drawn = drawTop(g, p);
+                if (drawn == ARTICHOKE) {
+                    addToHand(p, drawn);
+                    break;
+                }
+                addToDiscard(p, drawn);
+            }
+
+        } else if (card == OLD_BANANA) {
+            int given = removeFromHand(p, pickArtichokeOrRandom(g, p));
+            int opponent = chooseOpponent(g, p, opponentsWithHand(g, p));
+            int stolen = removeFromHand(opponent, randomFromHand(g, opponent, false));
+            addToHand(opponent, given);
+            addToHand(p, stolen);
+
+        } else if (card == AVOCADO) {
+            shuffleDeckAndDiscard(g, p);
+
+        } else if (card == RADISH || card == PEAR_V1) {
+            if (card == PEAR_V1) addToDiscard(p, removeFromHand(p, randomFromHand(g, p, true)));
+            if (hand[p * CARDS + ARTICHOKE] > 0) removeFromHand(p, ARTICHOKE);
+
+        } else if (card == LEMON) {
+            int opponent = chooseOpponent(g, p, opponentsWithDeckOrDiscard(g, p));
+            int drawn = drawTop(g, opponent);
+            if (drawn != ARTICHOKE) {
+                addToHand(p, drawn);
+            } else {
+                compost(g, opponent, drawn);
+            }
+
+        } else if (card == POTATO_V2) {
+            for (int i = 0; i < players; i++) {
+                int player = g * players + (currentSeat[g] + i) % players;
+                int drawn = drawTop(g, player);
+                if (drawn == ARTICHOKE) {
+                    compost(g, player, drawn);
+                } else if (drawn != NONE) {
+                    addToTopOfDeck(player, drawn);
+                }
+            }
+
+        } else if (card == TRADE) {
+            int opponent = chooseOpponent(g, p, opponentsWithHand(g, p));
+            if (handSize[opponent] > hand[opponent * CARDS + ARTICHOKE]) {
+                int given = removeFromHand(p, randomFromHand(g, p, true));
+                int taken = removeFromHand(opponent, randomFromHand(g, opponent, true));
+                addToHand(p, taken);
+                addToHand(opponent, given);
+            } else if (gardenDeckSize[g] > 0) {
+                int given = removeFromHand(p, randomFromHand(g, p, true));
+                addToHand(p, drawFromGardenDeck(g));
+                addToTopOfGardenDeck(g, given);
+            }
+        }
+    }
+
+    private void compost(int g, int owner, int card) {
+        if (card == NONE) return;
+        if (COMPOST[card] == CompostAction.ADD_TO_BOTTOM) {
+            gardenDeck[g * capacity + ((gardenDeckHead[g] + gardenDeckSize[g]++) & (capacity - 1))] = (byte) card;
+        } else if (COMPOST[card] == CompostAction.DISCARD) {
+            addToDiscard(owner, card);
+        }
+    }
+
+    private boolean hasOpponentWithHand(int g, int p) {
+        for (int i = 1; i < players; i++) {
+            if (handSize[g * players + (p - g * players + i) % players] > 0) return true;
+        }
+        return false;
+    }
+
+    private boolean hasOpponentWithDeckOrDiscard(int g, int p) {
+        for (int i = 1; i < players; i++) {
+            int opponent = g * players + (p - g * players + i) % players;
+            if (deckSize[opponent] > 0 || discardSize[opponent] > 0) return true;
+        }
+        return false;
+    }
+
+    private int opponentsWithHand(int g, int p) {
+        int candidates = 0;
+        for (int i = 1; i < players; i++) {
+            int opponent = g * players + (p - g * players + i) % players;
+            if (handSize[opponent] > 0) targets[candidates++] = opponent;
+        }
+        return candidates;
+    }
+
+    private int opponentsWithDeckOrDiscard(int g, int p) {
+        int candidates = 0;
+        for (int i = 1; i < players; i++) {
+            int opponent = g * players + (p - g * players + i) % players;
+            if (deckSize[opponent] > 0 || discardSize[opponent] > 0) targets[candidates++] = opponent;
+        }
+        return candidates;
+    }
+
+    // zones
+
+    private float artichokeRate(int p) {
+        int artichokes = hand[p * CARDS + ARTICHOKE] + deckArtichokes[p] + discard[p * CARDS + ARTICHOKE];
+        return (float) artichokes / (handSize[p] + deckSize[p] + discardSize[p]);
+    }
+
+    // each card in hand equally likely, optionally leaving out Artichokes
+    private int randomFromHand(int g, int p, boolean nonArtichoke) {
+        int size = nonArtichoke ? handSize[p] - hand[p * CARDS + ARTICHOKE] : handSize[p];
+        int index = size == 1 ? 0 : nextInt(g, size);
+        for (int card = 0; card < CARDS; card++) {
+            if (nonArtichoke && card == ARTICHOKE) continue;
+            index -= hand[p * CARDS + card];
+            if (index < 0) return card;
+        }
+        throw new IllegalStateException("No card in hand to pick");
+    }
+
+    private void addToHand(int p, int card) {
+        if (card == NONE) throw new IllegalStateException("Null card added to hand");
+        hand[p * CARDS + card] ++;
+        handSize[p] ++;
+    }
+
+    private int removeFromHand(int p, int card) {
+        hand[p * CARDS + card] --;
+        handSize[p] --;
+        return card;
+    }
+
+    private void addToDiscard(int p, int card) {
+        if (card == NONE) return;
+        discard[p * CARDS + card] ++;
+        discardSize[p] ++;
+    }
+
+    private void drawHand(int g, int p) {
+        while (handSize[p] < REFILL_HAND_SIZE) {
+            int card = drawTop(g, p);
+            if (card == NONE) break;
+            addToHand(p, card);
+        }
+    }
+
+    private int drawTop(int g, int p) {
+        if (deckSize[p] == 0) {
+            if (discardSize[p] == 0) return NONE;
+            shuffleDeckAndDiscard(g, p);
+        }
+        int card = deck[p * capacity + deckHead[p]];
+        deckHead[p] = (deckHead[p] + 1) & (capacity - 1);
+        deckSize[p] --;
+        if (card == ARTICHOKE) deckArtichokes[p] --;
+        return card;
+    }
+
+    private void addToTopOfDeck(int p, int card) {
+        deckHead[p] = (deckHead[p] - 1) & (capacity - 1);
+        deck[p * capacity + deckHead[p]] = (byte) card;
+        deckSize[p] ++;
+        if (card == ARTICHOKE) deckArtichokes[p] ++;
+    }
+
+    private void shuffleDeckAndDiscard(int g, int p) {
+        int offset = p * capacity;
+        deckArtichokes[p] += discard[p * CARDS + ARTICHOKE];
+        for (int card = 0; card < CARDS; card++) {
+            for (int count = discard[p * CARDS + card]; count > 0; count--) {
+                deck[offset + ((deckHead[p] + deckSize[p]++) & (capacity - 1))] = (byte) card;
+            }
+            discard[p * CARDS + card] = 0;
+        }
+        discardSize[p] = 0;
+        shuffle(deck, offset, deckHead[p], deckSize[p], g);
+    }
+
+    private int drawFromGardenDeck(int g) {
+        if (gardenDeckSize[g] == 0) return NONE;
+        int card = gardenDeck[g * capacity + gardenDeckHead[g]];
+        gardenDeckHead[g] = (gardenDeckHead[g] + 1) & (capacity - 1);
+        gardenDeckSize[g] --;
+        return card;
+    }
+
+    private void addToTopOfGardenDeck(int g, int card) {
+        gardenDeckHead[g] = (gardenDeckHead[g] - 1) & (capacity - 1);
+        gardenDeck[g * capacity + gardenDeckHead[g]] = (byte) card;
+        gardenDeckSize[g] ++;
+    }
+
+    // garden slot 0 is the newest card, as Game adds to the front and Carrot takes from the back
+    private void refillGarden(int g) {
+        int offset = g * GARDEN_CAPACITY;
+        while (gardenSize[g] < REFILL_GARDEN_SIZE) {
+            int card = drawFromGardenDeck(g);
+            if (card == NONE) return;
+            System.arraycopy(garden, offset, garden, offset + 1, gardenSize[g]);
+            garden[offset] = (byte) card;
+            gardenSize[g] ++;
+        }
+    }
+
+    private boolean gardenContains(int g, int card) {
+        for (int i = 0; i < gardenSize[g]; i++) {
+            if (garden[g * GARDEN_CAPACITY + i] == card) return true;
+        }
+        return false;
+    }
+
+    private void removeFromGarden(int g, int card) {
+        int offset = g * GARDEN_CAPACITY;
+        for (int i = 0; i < gardenSize[g]; i++) {
+            if (garden[offset + i] != card) continue;
+            System.arraycopy(garden, offset + i + 1, garden, offset + i, gardenSize[g] - i - 1);
+            gardenSize[g] --;
+            return;
+        }
+        throw new IllegalStateException("Card does not exist in Garden: " + Card.byOrdinal(card));
+    }
+
+    // same algorithm as Collections.shuffle, on a ring buffer
+    private void shuffle(byte[] cards, int offset, int head, int size, int g) {
+        for (int i = size; i > 1; i--) {
+            int a = offset + ((head + i - 1) & (capacity - 1));
+            int b = offset + ((head + nextInt(g, i)) & (capacity - 1));
+            byte temp = cards[a];
+            cards[a] = cards[b];
+            cards[b] = temp;
+        }
+    }
+
+    // SplitMix64 with the game's state kept in a long array, scaled to the bound by multiply and shift
+    private int nextInt(int g, int bound) {
+        long z = random[g] += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    // usage: BatchEngine [games [seed]] - plays line-ups on both engines and checks the stats agree
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        boolean agree = check(games, seed, new String[]{"Random", "Random", "Random"}, 10, 10, 10)
+                & check(games, seed, new String[]{"BulkNaive", "SlimNaive", "DeckNaive", "Random"}, 10, 10, 10, 10)
+                & check(games, seed, new String[]{"BulkNaive", "SlimNaive"}, 8, 12);
+        System.out.println(agree ? "Engines agree" : "ENGINES DISAGREE");
+        if (!agree) System.exit(1);
+    }
+
+    // compares every reported statistic as a z-score between the two engines - far beyond chance means a rule
+    // differs. Strict enough that a real difference shows, loose enough for the number of comparisons made
+    private static boolean check(int games, long seed, String[] lineup, int ... startingDeckSizes) {
+        final double maxZ = 4;
+        String[] names = new String[lineup.length];
+        for (int i = 0; i < lineup.length; i++) {
+            names[i] = (i + 1) + "-" + lineup[i];
+        }
+
+        long start = System.nanoTime();
+        StatsTracker reference = new BatchRunner(1).run(games, (gameIndex, statsTracker) -> {
+            Game.Builder builder = Runner.addDeck(new Game.Builder());
+            for (int i = 0; i < lineup.length; i++) {
+                builder.addPlayer(new Player(names[i], Strategies.byName(lineup[i]).get()));
+            }
+            builder.addLogger(statsTracker).setSeed(Randoms.seedFor(seed, gameIndex)).start(startingDeckSizes);
+        });
+        long referenceNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Builder builder = Runner.addDeck(new Builder()).setSeed(seed);
+        for (int i = 0; i < lineup.length; i++) {
+            builder.addPlayer(names[i], Strategies.byName(lineup[i]).get());
+        }
+        StatsTracker batch = builder.run(games, startingDeckSizes);
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println(String.join(" ", lineup) + " - " + games + " games, "
+                + String.format(Locale.ROOT, "%.0f ms reference, %.0f ms batch (%.1fx)",
+                referenceNanos / 1e6, batchNanos / 1e6, (double) referenceNanos / batchNanos));
+
+        List<String> failures = new ArrayList<>();
+        for (String name : names) {
+            compareRates("wins " + name, reference.getWins(name), batch.getWins(name), games, maxZ, failures);
+        }
+        compareRates("stalled", reference.getStalledGames(), batch.getStalledGames(), games, maxZ, failures);
+        compareMeans("game length", reference.getGameLengths(), batch.getGameLengths(), maxZ, failures);
+        compareMeans("winner turn position", reference.getWinsByTurnPosition(), batch.getWinsByTurnPosition(),
+                maxZ, failures);
+        compareMeans("remaining garden", reference.getRemainingGardenSizes(), batch.getRemainingGardenSizes(),
+                maxZ, failures);
+        compareMeans("Artichoke rate", reference.getAllArtichokeRates(), batch.getAllArtichokeRates(),
+                maxZ, failures);
+        for (String failure : failures) {
+            System.out.println("  " + failure);
+        }
+        return failures.isEmpty();
+    }
+
+    private static void compareRates(String label, int first, int second, int games, double maxZ,
+                                     List<String> failures) {
+        double pooled = (double) (first + second) / (2 * games);
+        double error = Math.sqrt(2 * pooled * (1 - pooled) / games);
+        double z = error == 0 ? 0 : ((double) first / games - (double) second / games) / error;
+        if (Math.abs(z) > maxZ) {
+            failures.add(String.format(Locale.ROOT, "%s: %d vs %d (z = %.1f)", label, first, second, z));
+        }
+    }
+
+    private static void compareMeans(String label, Histogram first, Histogram second, double maxZ,
+                                     List<String> failures) {
+        double error = Math.sqrt(first.variance() / first.getTotal() + second.variance() / second.getTotal());
+        double z = error == 0 ? 0 : (first.mean() - second.mean()) / error;
+        if (Math.abs(z) > maxZ) {
+            failures.add(String.format(Locale.ROOT, "%s: mean %.3f vs %.3f (z = %.1f)",
+                    label, first.mean(), second.mean(), z));
+        }
+    }
+
+    static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<int[]> playOrders = new ArrayList<>();
+        private final List<Card> deck = new ArrayList<>();
+        private long seed = 0;
+        private int maxTurns = 1000;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        // only RandomStrategy and SimpleStrategy play orders have a flat form
+        Builder addPlayer(String name, Strategy strategy) {
+            if (strategy instanceof SimpleStrategy) {
+                List<Action> playOrder = ((SimpleStrategy) strategy).playOrder(null);
+                int[] actions = new int[playOrder.size()];
+                for (int i = 0; i < actions.length; i++) {
+                    Action action = playOrder.get(i);
+                    actions[i] = action.getCard().ordinal() << 1 | (action.getType() == Action.Type.PLAY ? 1 : 0);
+                }
+                playOrders.add(actions);
+            } else if (strategy.getClass() == RandomStrategy.class) {
+                playOrders.add(null);
+            } else {
+                throw new IllegalArgumentException("Batch engine cannot play " + strategy.getClass().getSimpleName());
+            }
+            names.add(name);
+            return this;
+        }
+
+        Builder addToDeck(Card card, int number) {
+            for (int i = 0; i < number; i++) {
+                deck.add(card);
+            }
+            return this;
+        }
+
+        Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        Builder setMaxTurns(int maxTurns) {
+            if (maxTurns < 1) throw new IllegalArgumentException("Max turns must be positive: " + maxTurns);
+            this.maxTurns = maxTurns;
+            return this;
+        }
+
+        Builder setBatchSize(int batchSize) {
+            if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        StatsTracker run(int numberOfGames, int ... startingDeckSizes) {
+            if (startingDeckSizes.length != names.size()) {
+                throw new IllegalStateException("Number of deck sizes not equal to number of players");
+            }
+            return new BatchEngine(names, playOrders, deck, startingDeckSizes, seed, maxTurns, batchSize)
+                    .run(numberOfGames, startingDeckSizes);
+        }
+    }
+}
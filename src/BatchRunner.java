@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+class BatchRunner {
+
+    // games claimed by a worker at a time - small enough to balance, large enough to avoid contention
+    private static final int CHUNK_SIZE = 256;
+
+    private final int numberOfThreads;
+
+    BatchRunner(int numberOfThreads) {
+        if (numberOfThreads < 1) throw new IllegalArgumentException("Need at least one thread: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    StatsTracker run(final int numberOfGames, final GameSetup setup) {
+        return run(0, numberOfGames, setup);
+    }
+
+    // plays games in batches until every tracked proportion is within the half-width, or maxGames are played
+    StatsTracker runUntilPrecise(final double halfWidth, final double confidence, final int batchSize,
+                                 final int maxGames, final GameSetup setup) {
+        double z = Statistics.zScore(confidence);
+        StatsTracker statsTracker = new StatsTracker();
+        int gamesPlayed = 0;
+        while (gamesPlayed < maxGames) {
+            int games = Math.min(batchSize, maxGames - gamesPlayed);
+            statsTracker.merge(run(gamesPlayed, games, setup));
+            gamesPlayed += games;
+            if (statsTracker.getMaxHalfWidth(z) <= halfWidth) break;
+        }
+        return statsTracker;
+    }
+
+    // plays the games the checkpoint has left, saving it after every interval games - stats are merged in
+    // the same intervals whether or not the run was stopped in between, so a resumed run reports the same
+    StatsTracker run(final Checkpoint checkpoint, final int interval, final GameSetup setup) {
+        if (interval < 1) throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        while (!checkpoint.isFinished()) {
+            int games = Math.min(interval, checkpoint.getNumberOfGames() - checkpoint.getNextGame());
+            checkpoint.advance(games, run(checkpoint.getNextGame(), games, setup));
+            checkpoint.write();
+        }
+        return checkpoint.getStatsTracker();
+    }
+
+    // plays game indexes firstGame until firstGame + numberOfGames
+    StatsTracker run(final int firstGame, final int numberOfGames, final GameSetup setup) {
+        return run(firstGame, numberOfGames, StatsTracker::new, StatsTracker::merge, setup);
+    }
+
+    // same, for batches that count something other than stats - each worker fills its own results, merged into
+    // one at the end
+    <T> T run(final int firstGame, final int numberOfGames, final Supplier<T> newResults,
+              final BiConsumer<T, T> merge, final GameTask<T> task) {
+        AtomicInteger nextGame = new AtomicInteger(firstGame);
+        int endGame = firstGame + numberOfGames;
+
+        // no need for a pool when there is only one worker
+        if (numberOfThreads == 1) return playGames(nextGame, endGame, newResults.get(), task);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<T>> workers = new ArrayList<>();
+            for (int i = 0; i < numberOfThreads; i++) {
+                workers.add(executor.submit(() -> playGames(nextGame, endGame, newResults.get(), task)));
+            }
+
+            // merge per-worker results into one report
+            T results = newResults.get();
+            for (Future<T> worker : workers) {
+                merge.accept(results, worker.get());
+            }
+            return results;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running games", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed in worker", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // each worker owns its results, so nothing is shared while games are running
+    private static <T> T playGames(final AtomicInteger nextGame, final int endGame, final T results,
+                                   final GameTask<T> task) {
+        int start;
+        while ((start = nextGame.getAndAdd(CHUNK_SIZE)) < endGame) {
+            int end = Math.min(start + CHUNK_SIZE, endGame);
+            for (int i = start; i < end; i++) {
+                task.playGame(i, results);
+            }
+        }
+        return results;
+    }
+
+    interface GameTask<T> {
+
+        void playGame(int gameIndex, T results);
+    }
+
+    interface GameSetup extends GameTask<StatsTracker> {
+    }
+}
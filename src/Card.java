@@ -1,6 +1,4 @@
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public enum Card {
 
@@ -34,14 +32,14 @@ public enum Card {
 
         @Override
         void playCard(final Game game) {
-            game.getCurrentPlayer().addToDiscard(game.getGarden().removeLast());
+            game.getCurrentPlayer().addToDiscard(game.removeLastFromGarden());
         }
     },
     BROCCOLI_V1(HarvestAction.ADD_TO_HAND, CompostAction.ADD_TO_BOTTOM) {
         @Override
         boolean canBePlayed(final Game game) {
             // has at least 2 cards (including the Broccoli)
-            if (game.getCurrentPlayer().getHand().size() < 2) return false;
+            if (game.getCurrentPlayer().getHandSize() < 2) return false;
 
             return game.getCurrentPlayer().deckOrDiscardHasCards();
         }
@@ -50,19 +48,19 @@ public enum Card {
         void playCard(final Game game) {
             Card card = game.getCurrentPlayer().drawTop();
             game.getCurrentPlayer().pickCardForTopOfDeck();
-            game.getCurrentPlayer().getHand().add(card);
+            game.getCurrentPlayer().addToHand(card);
         }
     },
     BROCCOLI_V2(HarvestAction.ADD_TO_DISCARD, CompostAction.ADD_TO_BOTTOM) {
         @Override
         boolean canBePlayed(Game game) {
-            return game.getCurrentPlayer().getHand().stream().filter(card -> card == ARTICHOKE).count() > 2;
+            return game.getCurrentPlayer().countArtichokesInHand() > 2;
         }
 
         @Override
         void playCard(Game game) {
             // compost 2 Artichokes from hand
-            if (!game.getCurrentPlayer().getHand().remove(ARTICHOKE)) {
+            if (!game.getCurrentPlayer().removeFromHand(ARTICHOKE)) {
                 throw new IllegalStateException("No Artichoke in hand to compost");
             }
             game.compostCard(ARTICHOKE, game.getCurrentPlayer());
@@ -72,8 +70,7 @@ public enum Card {
         @Override
         boolean canBePlayed(final Game game) {
             // has at least 2 non-Artichokes (including the Onion)
-            long count = game.getCurrentPlayer().getHand().stream().filter(card -> card != ARTICHOKE).count();
-            if (count < 2) return false;
+            if (game.getCurrentPlayer().countNonArtichokesInHand() < 2) return false;
 
             return game.hasOpponentWithHand();
         }
@@ -81,17 +78,13 @@ public enum Card {
         @Override
         void playCard(final Game game) {
             // choose opponent, compost random card
-            List<Player> opponentsWithHand = game.getOpponents().stream()
-                    .filter(player -> !player.getHand().isEmpty())
-                    .collect(Collectors.toList());
+            List<Player> opponentsWithHand = game.getOpponentsWithHand();
             Player opponent = game.getCurrentPlayer().chooseOpponent(opponentsWithHand);
-            Collections.shuffle(opponent.getHand());
-            game.compostCard(opponent.getHand().removeFirst(), opponent);
+            game.compostCard(opponent.removeRandomFromHand(game.getRandom()), opponent);
             //TODO add illegal state checks
 
             // compost random card from hand
-            Collections.shuffle(game.getCurrentPlayer().getHand());
-            game.compostCard(game.getCurrentPlayer().getHand().removeFirst(), game.getCurrentPlayer());
+            game.compostCard(game.getCurrentPlayer().removeRandomFromHand(game.getRandom()), game.getCurrentPlayer());
         }
     },
     BANANA(HarvestAction.ADD_TO_HAND, CompostAction.ADD_TO_BOTTOM) {
@@ -105,7 +98,7 @@ public enum Card {
             while (game.getCurrentPlayer().deckHasCards()) {
                 Card card = game.getCurrentPlayer().drawTop();
                 if (card == ARTICHOKE) {
-                    game.getCurrentPlayer().getHand().add(card);
+                    game.getCurrentPlayer().addToHand(card);
                     break;
                 }
                 game.getCurrentPlayer().addToDiscard(card);
@@ -116,7 +109,7 @@ public enum Card {
         @Override
         boolean canBePlayed(Game game) {
             // has at least 2 cards (including the Broccoli)
-            if (game.getCurrentPlayer().getHand().size() < 2) return false;
+            if (game.getCurrentPlayer().getHandSize() < 2) return false;
 
             return game.hasOpponentWithHand();
         }
@@ -127,17 +120,14 @@ public enum Card {
             Card cardToGive = game.getCurrentPlayer().giveCardToOpponent();
 
             // choose opponent, take random card
-            List<Player> opponentsWithHand = game.getOpponents().stream()
-                    .filter(player -> !player.getHand().isEmpty())
-                    .collect(Collectors.toList());
+            List<Player> opponentsWithHand = game.getOpponentsWithHand();
             Player opponent = game.getCurrentPlayer().chooseOpponent(opponentsWithHand);
-            Collections.shuffle(opponent.getHand());
-            Card stolenCard = opponent.getHand().removeFirst();
+            Card stolenCard = opponent.removeRandomFromHand(game.getRandom());
             //TODO add illegal state checks
 
             // give chosen card to opponent and add stolen card to hand
-            opponent.getHand().add(cardToGive);
-            game.getCurrentPlayer().getHand().add(stolenCard);
+            opponent.addToHand(cardToGive);
+            game.getCurrentPlayer().addToHand(stolenCard);
         }
     },
     AVOCADO(HarvestAction.ADD_TO_HAND, CompostAction.DISCARD) {
@@ -155,20 +145,15 @@ public enum Card {
         @Override
         boolean canBePlayed(final Game game) {
             // has at least 1 Artichoke to compost
-            long artichokeCount = game.getCurrentPlayer().getHand().stream().filter(card -> card == ARTICHOKE).count();
-            if (artichokeCount < 1) return false;
+            if (game.getCurrentPlayer().countArtichokesInHand() < 1) return false;
 
             return game.getCurrentPlayer().doesDiscardContain(Card.RADISH);
         }
 
         @Override
         void playCard(final Game game) {
-            for (Card card : game.getCurrentPlayer().getHand()) {
-                if (card == ARTICHOKE) {
-                    game.getCurrentPlayer().getHand().remove(card);
-                    game.compostCard(card, game.getCurrentPlayer());
-                    break;
-                }
+            if (game.getCurrentPlayer().removeFromHand(ARTICHOKE)) {
+                game.compostCard(ARTICHOKE, game.getCurrentPlayer());
             }
         }
     },
@@ -180,15 +165,13 @@ public enum Card {
 
         @Override
         void playCard(final Game game) {
-            List<Player> opponentsWithDeckOrDiscard = game.getOpponents().stream()
-                    .filter(Player::deckOrDiscardHasCards)
-                    .collect(Collectors.toList());
+            List<Player> opponentsWithDeckOrDiscard = game.getOpponentsWithDeckOrDiscard();
             Player opponent = game.getCurrentPlayer().chooseOpponent(opponentsWithDeckOrDiscard);
             Card card = opponent.drawTop();
             //TODO add illegal state checks
 
             if (game.getCurrentPlayer().doesWantCard(card)) {
-                game.getCurrentPlayer().getHand().add(card);
+                game.getCurrentPlayer().addToHand(card);
             } else {
                 game.compostCard(card, opponent);
             }
@@ -198,23 +181,17 @@ public enum Card {
         @Override
         boolean canBePlayed(final Game game) {
             // has at least 2 non-Artichokes (including the Pear)
-            long nonCount = game.getCurrentPlayer().getHand().stream().filter(card -> card != ARTICHOKE).count();
-            if (nonCount < 2) return false;
+            if (game.getCurrentPlayer().countNonArtichokesInHand() < 2) return false;
 
             // has at least 1 Artichoke to compost
-            long artichokeCount = game.getCurrentPlayer().getHand().stream().filter(card -> card == ARTICHOKE).count();
-            return artichokeCount > 0;
+            return game.getCurrentPlayer().countArtichokesInHand() > 0;
         }
 
         @Override
         void playCard(final Game game) {
             game.getCurrentPlayer().discardNonArtichoke();
-            for (Card card : game.getCurrentPlayer().getHand()) {
-                if (card == ARTICHOKE) {
-                    game.getCurrentPlayer().getHand().remove(card);
-                    game.compostCard(card, game.getCurrentPlayer());
-                    break;
-                }
+            if (game.getCurrentPlayer().removeFromHand(ARTICHOKE)) {
+                game.compostCard(ARTICHOKE, game.getCurrentPlayer());
             }
         }
     },
@@ -253,8 +230,7 @@ public enum Card {
         @Override
         boolean canBePlayed(Game game) {
             // has at least 2 non-Artichokes (including the this card)
-            long nonCount = game.getCurrentPlayer().getHand().stream().filter(card -> card != ARTICHOKE).count();
-            if (nonCount < 2) return false;
+            if (game.getCurrentPlayer().countNonArtichokesInHand() < 2) return false;
 
             return game.hasOpponentWithHand();
         }
@@ -262,26 +238,24 @@ public enum Card {
         @Override
         void playCard(Game game) {
             // choose opponent, they choose non-Artichoke card if it exists
-            List<Player> opponentsWithHand = game.getOpponents().stream()
-                    .filter(player -> !player.getHand().isEmpty())
-                    .collect(Collectors.toList());
+            List<Player> opponentsWithHand = game.getOpponentsWithHand();
             Player opponent = game.getCurrentPlayer().chooseOpponent(opponentsWithHand);
 
             // check if opponent has non-Artichokes
-            if (opponent.getHand().stream().anyMatch(card -> card != ARTICHOKE)) {
+            if (opponent.countNonArtichokesInHand() > 0) {
                 // each player chooses non-Artichoke to trade
                 Card playerCard = game.getCurrentPlayer().giveNonArtichokeToOpponent();
                 Card opponentCard = opponent.giveNonArtichokeToOpponent();
 
                 // trade cards
-                game.getCurrentPlayer().getHand().add(opponentCard);
-                opponent.getHand().add(playerCard);
+                game.getCurrentPlayer().addToHand(opponentCard);
+                opponent.addToHand(playerCard);
 
-            } else if (!game.getGarden().isEmpty()) {
+            } else if (game.gardenDeckHasCards()) {
                 // swap with top of garden deck
                 Card playerCard = game.getCurrentPlayer().giveNonArtichokeToOpponent();
                 Card gardenCard = game.drawTop();
-                game.getCurrentPlayer().getHand().add(gardenCard);
+                game.getCurrentPlayer().addToHand(gardenCard);
                 game.addToTopOfDeck(playerCard);
             }
 
@@ -289,6 +263,8 @@ public enum Card {
         }
     };
 
+    private static final Card[] VALUES = values();
+
     private final HarvestAction harvestAction;
     private final CompostAction compostAction;
 
@@ -297,6 +273,14 @@ public enum Card {
         this.compostAction = compostAction;
     }
 
+    static Card byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    static int count() {
+        return VALUES.length;
+    }
+
     public HarvestAction getHarvestAction() {
         return harvestAction;
     }
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// unordered zone of cards, stored as a count per card type plus a bit per card type present
+class CardCounts implements UndoLog.Undoable {
+
+    // undo arguments are the card ordinal with the number of copies above it
+    private static final int ADDED = 0;
+    private static final int REMOVED = 1;
+    private static final int COPIES_SHIFT = 8;
+
+    private final int[] counts = new int[Card.count()];
+    private long mask = 0;
+    private int size = 0;
+    private UndoLog undoLog;
+
+    void setUndoLog(UndoLog undoLog) {
+        this.undoLog = undoLog;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int count(Card card) {
+        return counts[card.ordinal()];
+    }
+
+    boolean contains(Card card) {
+        return (mask & (1L << card.ordinal())) != 0;
+    }
+
+    // bit per card ordinal, set while at least one of that card is in the zone
+    long getMask() {
+        return mask;
+    }
+
+    void add(Card card) {
+        counts[card.ordinal()] ++;
+        mask |= 1L << card.ordinal();
+        size ++;
+        if (undoLog != null) undoLog.record(this, ADDED, card.ordinal() | 1 << COPIES_SHIFT);
+    }
+
+    void addAll(CardCounts other) {
+        for (long bits = other.mask; bits != 0; bits &= bits - 1) {
+            int ordinal = Long.numberOfTrailingZeros(bits);
+            counts[ordinal] += other.counts[ordinal];
+            if (undoLog != null) undoLog.record(this, ADDED, ordinal | other.counts[ordinal] << COPIES_SHIFT);
+        }
+        mask |= other.mask;
+        size += other.size;
+    }
+
+    boolean remove(Card card) {
+        if (counts[card.ordinal()] == 0) return false;
+        if (--counts[card.ordinal()] == 0) mask &= ~(1L << card.ordinal());
+        size --;
+        if (undoLog != null) undoLog.record(this, REMOVED, card.ordinal() | 1 << COPIES_SHIFT);
+        return true;
+    }
+
+    void clear() {
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int ordinal = Long.numberOfTrailingZeros(bits);
+            if (undoLog != null) undoLog.record(this, REMOVED, ordinal | counts[ordinal] << COPIES_SHIFT);
+            counts[ordinal] = 0;
+        }
+        mask = 0;
+        size = 0;
+    }
+
+    @Override
+    public void revert(int operation, int argument) {
+        int ordinal = argument & ((1 << COPIES_SHIFT) - 1);
+        int copies = argument >>> COPIES_SHIFT;
+        if (operation == ADDED) copies = -copies;
+
+        counts[ordinal] += copies;
+        size += copies;
+        if (counts[ordinal] == 0) {
+            mask &= ~(1L << ordinal);
+        } else {
+            mask |= 1L << ordinal;
+        }
+    }
+
+    // card at a position when the zone is laid out in card order
+    Card get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        for (int i = 0; i < counts.length; i++) {
+            index -= counts[i];
+            if (index < 0) return Card.byOrdinal(i);
+        }
+        throw new IllegalStateException("Card counts out of sync with size");
+    }
+
+    void save(GameSnapshot snapshot) {
+        for (int count : counts) {
+            snapshot.putInt(count);
+        }
+    }
+
+    void restore(GameSnapshot snapshot) {
+        mask = 0;
+        size = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = snapshot.getInt();
+            if (counts[i] != 0) mask |= 1L << i;
+            size += counts[i];
+        }
+    }
+
+    List<Card> toList() {
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < counts.length; i++) {
+            for (int j = 0; j < counts[i]; j++) {
+                cards.add(Card.byOrdinal(i));
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// ordered zone of cards, stored as card ordinals in a growable ring buffer - index 0 is the top
+class CardDeque implements UndoLog.Undoable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // undo arguments are the card ordinal, or for a swap the two positions
+    private static final int ADDED_FIRST = 0;
+    private static final int ADDED_LAST = 1;
+    private static final int REMOVED_FIRST = 2;
+    private static final int REMOVED_LAST = 3;
+    private static final int SWAPPED = 4;
+    private static final int CLEARED = 5;
+    private static final int POSITION_SHIFT = 16;
+
+    private final int[] counts = new int[Card.count()];
+    private byte[] cards = new byte[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    private UndoLog undoLog;
+
+    void setUndoLog(UndoLog undoLog) {
+        this.undoLog = undoLog;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Card get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return Card.byOrdinal(cards[slot(index)]);
+    }
+
+    int count(Card card) {
+        return counts[card.ordinal()];
+    }
+
+    void addFirst(Card card) {
+        ensureCapacity();
+        head = (head - 1) & (cards.length - 1);
+        cards[head] = (byte) card.ordinal();
+        counts[card.ordinal()] ++;
+        size ++;
+        if (undoLog != null) undoLog.record(this, ADDED_FIRST, card.ordinal());
+    }
+
+    void addLast(Card card) {
+        ensureCapacity();
+        cards[slot(size)] = (byte) card.ordinal();
+        counts[card.ordinal()] ++;
+        size ++;
+        if (undoLog != null) undoLog.record(this, ADDED_LAST, card.ordinal());
+    }
+
+    void addAll(CardCounts counts) {
+        for (int i = 0; i < Card.count(); i++) {
+            Card card = Card.byOrdinal(i);
+            for (int j = counts.count(card); j > 0; j--) {
+                addLast(card);
+            }
+        }
+    }
+
+    Card removeFirst() {
+        if (size == 0) return null;
+        Card card = Card.byOrdinal(cards[head]);
+        head = (head + 1) & (cards.length - 1);
+        counts[card.ordinal()] --;
+        size --;
+        if (undoLog != null) undoLog.record(this, REMOVED_FIRST, card.ordinal());
+        return card;
+    }
+
+    Card removeLast() {
+        if (size == 0) return null;
+        size --;
+        Card card = Card.byOrdinal(cards[slot(size)]);
+        counts[card.ordinal()] --;
+        if (undoLog != null) undoLog.record(this, REMOVED_LAST, card.ordinal());
+        return card;
+    }
+
+    // only snapshots clear a deque, and restoring one starts the undo log over - nothing to take back
+    void clear() {
+        if (undoLog != null) undoLog.record(this, CLEARED, 0);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    // same algorithm as Collections.shuffle
+    void shuffle(SplittableRandom random) {
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            swap(i - 1, j);
+            if (undoLog != null) undoLog.record(this, SWAPPED, (i - 1) << POSITION_SHIFT | j);
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = slot(i);
+        int b = slot(j);
+        byte temp = cards[a];
+        cards[a] = cards[b];
+        cards[b] = temp;
+    }
+
+    @Override
+    public void revert(int operation, int argument) {
+        switch (operation) {
+            case ADDED_FIRST:
+                removeFirst();
+                break;
+            case ADDED_LAST:
+                removeLast();
+                break;
+            case REMOVED_FIRST:
+                addFirst(Card.byOrdinal(argument));
+                break;
+            case REMOVED_LAST:
+                addLast(Card.byOrdinal(argument));
+                break;
+            case SWAPPED:
+                swap(argument >>> POSITION_SHIFT, argument & ((1 << POSITION_SHIFT) - 1));
+                break;
+            case CLEARED:
+            default:
+                throw new IllegalStateException("Cannot undo deque operation: " + operation);
+        }
+    }
+
+    void save(GameSnapshot snapshot) {
+        snapshot.putInt(size);
+        for (int i = 0; i < size; i++) {
+            snapshot.putCard(Card.byOrdinal(cards[slot(i)]));
+        }
+    }
+
+    void restore(GameSnapshot snapshot) {
+        clear();
+        int size = snapshot.getInt();
+        for (int i = 0; i < size; i++) {
+            addLast(snapshot.getCard());
+        }
+    }
+
+    List<Card> toList() {
+        List<Card> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Card.byOrdinal(cards[slot(i)]));
+        }
+        return list;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (cards.length - 1);
+    }
+
+    private void ensureCapacity() {
+        if (size < cards.length) return;
+
+        // unroll the ring into a buffer twice the size - capacity stays a power of two
+        byte[] grown = new byte[cards.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = cards[slot(i)];
+        }
+        cards = grown;
+        head = 0;
+    }
+}
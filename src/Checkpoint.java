@@ -0,0 +1,166 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// progress of a long batch - the master seed and the next game index are all the random state there is, since
+// every game seeds itself from those two. The setup the games were played with is saved too, so a run can't be
+// resumed into a different one, and so are the row count of an attached ResultStore and the writer positions of
+// an attached TraceRecorder, both synced at every save. Saved to a temporary file and moved over the old one, so
+// a run killed mid-write still leaves the previous checkpoint intact
+class Checkpoint {
+
+    private static final int MAGIC = 0x41414143;
+    private static final int VERSION = 4;
+    private static final int NO_RESULTS = -1;
+    private static final int NO_TRACES = -1;
+
+    private final Path file;
+    private final String configuration;
+    private final long masterSeed;
+    private final int numberOfGames;
+    private int nextGame = 0;
+    private final StatsTracker statsTracker = new StatsTracker();
+    private ResultStore resultStore;
+    private int resultRows = NO_RESULTS;
+    private TraceRecorder traceRecorder;
+    private int[] tracePositions;
+
+    Checkpoint(Path file, String configuration, long masterSeed, int numberOfGames) {
+        this.file = file;
+        this.configuration = configuration;
+        this.masterSeed = masterSeed;
+        this.numberOfGames = numberOfGames;
+    }
+
+    // the saved checkpoint if there is one, otherwise a fresh one for the given run - a saved one must be for
+    // the same configuration, as Game.Builder.describe gives it
+    static Checkpoint resumeOrStart(Path file, String configuration, long masterSeed, int numberOfGames) {
+        if (!Files.exists(file)) return new Checkpoint(file, configuration, masterSeed, numberOfGames);
+
+        Checkpoint checkpoint = read(file);
+        if (!checkpoint.configuration.equals(configuration)) {
+            throw new IllegalStateException("Checkpoint " + file + " is for another setup\n  saved:   "
+                    + checkpoint.configuration + "\n  current: " + configuration);
+        }
+        return checkpoint;
+    }
+
+    static Checkpoint read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IllegalStateException("Not a checkpoint: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IllegalStateException("Unsupported checkpoint version: " + version);
+
+            Checkpoint checkpoint = new Checkpoint(file, in.readUTF(), in.readLong(), in.readInt());
+            checkpoint.nextGame = in.readInt();
+            checkpoint.resultRows = in.readInt();
+            int traceWriters = in.readInt();
+            if (traceWriters != NO_TRACES) {
+                checkpoint.tracePositions = new int[traceWriters];
+                for (int i = 0; i < traceWriters; i++) {
+                    checkpoint.tracePositions[i] = in.readInt();
+                }
+            }
+            checkpoint.statsTracker.read(in);
+            return checkpoint;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + file, e);
+        }
+    }
+
+    void write() {
+        resultRows = resultStore == null ? NO_RESULTS : resultStore.sync();
+        tracePositions = traceRecorder == null ? null : traceRecorder.sync();
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeUTF(configuration);
+                    out.writeLong(masterSeed);
+                    out.writeInt(numberOfGames);
+                    out.writeInt(nextGame);
+                    out.writeInt(resultRows);
+                    out.writeInt(tracePositions == null ? NO_TRACES : tracePositions.length);
+                    if (tracePositions != null) {
+                        for (int position : tracePositions) {
+                            out.writeInt(position);
+                        }
+                    }
+                    statsTracker.write(out);
+                    out.flush();
+                    stream.getFD().sync();
+                }
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint " + file, e);
+        }
+    }
+
+    long getMasterSeed() {
+        return masterSeed;
+    }
+
+    int getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    int getNextGame() {
+        return nextGame;
+    }
+
+    boolean isFinished() {
+        return nextGame >= numberOfGames;
+    }
+
+    // the store the games so far went to, saved along with every checkpoint from now on
+    void attach(ResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    // false if games already played were never stored - then a store can't be resumed from this checkpoint
+    boolean hasResults() {
+        return nextGame == 0 || resultRows != NO_RESULTS;
+    }
+
+    int getResultRows() {
+        return Math.max(resultRows, 0);
+    }
+
+    // the recorder the games so far were traced with, saved along with every checkpoint from now on
+    void attach(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    // false if games already played were never traced - then traces can't be resumed from this checkpoint
+    boolean hasTraces() {
+        return nextGame == 0 || tracePositions != null;
+    }
+
+    int[] getTracePositions() {
+        return tracePositions == null ? new int[0] : tracePositions.clone();
+    }
+
+    StatsTracker getStatsTracker() {
+        return statsTracker;
+    }
+
+    // stats for the games before nextGame - the only way the two move forward
+    void advance(int games, StatsTracker stats) {
+        statsTracker.merge(stats);
+        nextGame += games;
+    }
+}
@@ -1,85 +1,262 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
 
-class Game {
+class Game implements UndoLog.Undoable {
 
     private static final int REFILL_GARDEN_SIZE = 5;
 
-    private final LinkedList<Player> players = new LinkedList<>();
-    private final LinkedList<Card> deck = new LinkedList<>();
+    // undo arguments are the value before the change, or the card ordinal with its garden position above it
+    private static final int GARDEN_ADDED_FIRST = 0;
+    private static final int GARDEN_REMOVED = 1;
+    private static final int SET_CURRENT_SEAT = 2;
+    private static final int SET_TURN_COUNTER = 3;
+    private static final int POSITION_SHIFT = 8;
+    private static final int DEFAULT_MAX_TURNS = 1000;
+    private static final Logger.Event[] EVENTS = Logger.Event.values();
+    private static final Logger[] NO_LOGGERS = new Logger[0];
+
+    private final Player[] seats;
+    private final List<Player> players;
+    private final List<List<Player>> opponentsBySeat = new ArrayList<>();
+    private final CardDeque deck = new CardDeque();
     private final LinkedList<Card> garden = new LinkedList<>();
-    private final Set<Logger> loggers = new HashSet<>();
+    private final Logger[][] loggersByEvent = new Logger[EVENTS.length][];
+    private final long seed;
+    private final SplittableRandom random;
+    private final int maxTurns;
+
+    private int currentSeat = -1;
+    private int turnCounter = 0;
+    private UndoLog undoLog;
+
+    // bit per seat with cards in hand, and with cards in deck or discard - players keep them up to date, so
+    // eligibility checks don't scan the table
+    private long seatsWithHand = 0;
+    private long seatsWithDeckOrDiscard = 0;
 
-    private Player currentPlayer;
+    // scratch space for determinize, so rollouts don't allocate
+    private final List<Card> unseen = new ArrayList<>();
+    private int[] unseenInHand;
+    private int[] unseenInDeck;
 
-    private Game(List<Player> players, List<Card> deck, Set<Logger> loggers) {
-        this.players.addAll(players);
-        this.deck.addAll(deck);
-        this.loggers.addAll(loggers);
+    // filled for each opponent choice, so choosing allocates nothing - only valid until the next choice
+    private final List<Player> eligibleOpponents;
+    private final List<Player> eligibleOpponentsView;
+
+    private Game(List<Player> players, List<Card> deck, Set<Logger> loggers, long seed, SplittableRandom random,
+                 int maxTurns) {
+        this.seats = players.toArray(new Player[0]);
+        if (seats.length > Long.SIZE) throw new IllegalStateException("Too many players: " + seats.length);
+        this.players = Collections.unmodifiableList(Arrays.asList(seats.clone()));
+        this.eligibleOpponents = new ArrayList<>(seats.length);
+        this.eligibleOpponentsView = Collections.unmodifiableList(eligibleOpponents);
+        for (int seat = 0; seat < seats.length; seat++) {
+            seats[seat].seat(this, seat);
+        }
+        for (Card card : deck) {
+            this.deck.addLast(card);
+        }
+        this.seed = seed;
+        this.random = random;
+        this.maxTurns = maxTurns;
+
+        // opponents of each seat, in turn order starting with the next player
+        for (int seat = 0; seat < seats.length; seat++) {
+            List<Player> opponents = new ArrayList<>(seats.length - 1);
+            for (int i = 1; i < seats.length; i++) {
+                opponents.add(seats[(seat + i) % seats.length]);
+            }
+            opponentsBySeat.add(Collections.unmodifiableList(opponents));
+        }
+
+        // precompute who gets each event, so events nobody wants cost nothing
+        Logger[] allLoggers = loggers.toArray(NO_LOGGERS);
+        for (Logger.Event event : EVENTS) {
+            int count = 0;
+            for (Logger logger : allLoggers) {
+                if (logger.getEvents().contains(event)) count ++;
+            }
+
+            Logger[] eventLoggers = count == 0 ? NO_LOGGERS : new Logger[count];
+            count = 0;
+            for (Logger logger : allLoggers) {
+                if (logger.getEvents().contains(event)) eventLoggers[count++] = logger;
+            }
+            loggersByEvent[event.ordinal()] = eventLoggers;
+        }
     }
 
     private void start() {
+        for (Logger logger : loggersFor(Logger.Event.GAME_STARTED)) {
+            logger.gameStarted(this);
+        }
         refillGarden();
-        nextPlayersTurn();
+
+        while (turnCounter < maxTurns) {
+            if (nextPlayersTurn()) {
+                for (Logger logger : loggersFor(Logger.Event.GAME_OVER)) {
+                    logger.gameOver(this);
+                }
+                return;
+            }
+
+            // setup for next turn
+            refillGarden();
+        }
+
+        // nobody won before the turn cap
+        for (Logger logger : loggersFor(Logger.Event.GAME_STALLED)) {
+            logger.gameStalled(this);
+        }
+    }
+
+    Logger[] loggersFor(Logger.Event event) {
+        return loggersByEvent[event.ordinal()];
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    int getNumberOfTurnsTaken() {
+        return turnCounter;
     }
 
     Player getCurrentPlayer() {
-        return currentPlayer;
+        return currentSeat < 0 ? null : seats[currentSeat];
     }
 
+    // before the first turn every player is an opponent
     List<Player> getOpponents() {
-        return players;
+        return currentSeat < 0 ? players : opponentsBySeat.get(currentSeat);
+    }
+
+    // all players in seat order, starting with the player whose turn it is
+    List<Player> getPlayers() {
+        if (currentSeat < 0) return players;
+        List<Player> allPlayers = new ArrayList<>(seats.length);
+        allPlayers.add(seats[currentSeat]);
+        allPlayers.addAll(getOpponents());
+        return allPlayers;
     }
 
     boolean hasOpponentWithHand() {
-        return players.stream().anyMatch(player -> !player.getHand().isEmpty());
+        return (seatsWithHand & opponentSeats()) != 0;
     }
 
     boolean hasOpponentWithDeckOrDiscard() {
-        return players.stream().anyMatch(Player::deckOrDiscardHasCards);
+        return (seatsWithDeckOrDiscard & opponentSeats()) != 0;
     }
 
-    private void nextPlayersTurn() {
-        if (currentPlayer != null) players.addLast(currentPlayer);
-        currentPlayer = players.removeFirst();
+    // opponents with cards in hand, in turn order - the list is reused by the next call
+    List<Player> getOpponentsWithHand() {
+        return eligibleOpponents(seatsWithHand);
+    }
 
-        loggers.forEach(logger -> logger.startTurn(currentPlayer));
-        boolean didWin = currentPlayer.takeTurn(this, loggers);
-        loggers.forEach(logger -> logger.endTurn(currentPlayer));
+    // opponents with cards in deck or discard, in turn order - the list is reused by the next call
+    List<Player> getOpponentsWithDeckOrDiscard() {
+        return eligibleOpponents(seatsWithDeckOrDiscard);
+    }
 
-        if (didWin) {
-            loggers.forEach(logger -> logger.gameOver(this));
-            return;
+    private List<Player> eligibleOpponents(long eligibleSeats) {
+        eligibleOpponents.clear();
+        for (Player opponent : getOpponents()) {
+            if ((eligibleSeats & 1L << opponent.getSeat()) != 0) eligibleOpponents.add(opponent);
         }
+        return eligibleOpponentsView;
+    }
 
-        // setup for next turn
-        refillGarden();
-        nextPlayersTurn();
+    private long opponentSeats() {
+        return currentSeat < 0 ? -1L : ~(1L << currentSeat);
+    }
+
+    void updateSeat(int seat, boolean hasHand, boolean hasDeckOrDiscard) {
+        long bit = 1L << seat;
+        seatsWithHand = hasHand ? seatsWithHand | bit : seatsWithHand & ~bit;
+        seatsWithDeckOrDiscard = hasDeckOrDiscard ? seatsWithDeckOrDiscard | bit : seatsWithDeckOrDiscard & ~bit;
     }
 
-    private void refillGarden() {
+    private boolean nextPlayersTurn() {
+        nextPlayer();
+
+        Player currentPlayer = seats[currentSeat];
+        for (Logger logger : loggersFor(Logger.Event.START_TURN)) {
+            logger.startTurn(currentPlayer);
+        }
+        boolean didWin = currentPlayer.takeTurn(this);
+        for (Logger logger : loggersFor(Logger.Event.END_TURN)) {
+            logger.endTurn(currentPlayer);
+        }
+        return didWin;
+    }
+
+    // hand play to the next player without taking their turn
+    void nextPlayer() {
+        if (undoLog != null) {
+            undoLog.record(this, SET_CURRENT_SEAT, currentSeat);
+            undoLog.record(this, SET_TURN_COUNTER, turnCounter);
+        }
+        currentSeat = (currentSeat + 1) % seats.length;
+        turnCounter ++;
+    }
+
+    void refillGarden() {
         while (garden.size() < REFILL_GARDEN_SIZE) {
             Card card = drawTop();
             if (card == null) return;
             garden.addFirst(card);
+            if (undoLog != null) undoLog.record(this, GARDEN_ADDED_FIRST, card.ordinal());
+        }
+        for (Logger logger : loggersFor(Logger.Event.GARDEN_REFRESHED)) {
+            logger.gardenRefreshed(garden);
         }
-        loggers.forEach(logger -> logger.gardenRefreshed(garden));
     }
 
     LinkedList<Card> getGarden() {
         return garden;
     }
 
+    List<Card> getGardenDeck() {
+        return Collections.unmodifiableList(deck.toList());
+    }
+
+    // first copy of the card - false if the garden has none
+    boolean removeFromGarden(Card card) {
+        int position = garden.indexOf(card);
+        if (position < 0) return false;
+        garden.remove(position);
+        if (undoLog != null) undoLog.record(this, GARDEN_REMOVED, position << POSITION_SHIFT | card.ordinal());
+        return true;
+    }
+
+    Card removeLastFromGarden() {
+        Card card = garden.removeLast();
+        if (undoLog != null) {
+            undoLog.record(this, GARDEN_REMOVED, garden.size() << POSITION_SHIFT | card.ordinal());
+        }
+        return card;
+    }
+
     int getRemainingGardenSize() {
         return garden.size() + deck.size();
     }
 
+    boolean gardenDeckHasCards() {
+        return !deck.isEmpty();
+    }
+
     Card drawTop() {
-        if (deck.isEmpty()) return null;
         return deck.removeFirst();
     }
 
@@ -103,10 +280,179 @@ class Game {
         }
     }
 
+    // finish the turn under way and play on until someone wins or the turn cap - returns the winner, or null
+    // if the game stalls. Meant for rollouts on a copy, so no game over events are sent
+    Player playOut() {
+        Player currentPlayer = seats[currentSeat];
+        if (currentPlayer.finishTurn(this)) return currentPlayer;
+        refillGarden();
+
+        while (turnCounter < maxTurns) {
+            if (nextPlayersTurn()) return seats[currentSeat];
+            refillGarden();
+        }
+        return null;
+    }
+
+    // a game in the same state with each seat played by another strategy and no loggers - for rollouts
+    Game copy(Function<Player, Strategy> strategyFor, SplittableRandom random) {
+        List<Player> copies = new ArrayList<>(seats.length);
+        for (Player player : seats) {
+            Player copy = new Player(player.getName(), strategyFor.apply(player));
+            copy.initialize(0, random.split(), player.isLazyShuffle());
+            copies.add(copy);
+        }
+
+        Game copy = new Game(copies, Collections.emptyList(), Collections.emptySet(), seed, random, maxTurns);
+        copy.restore(snapshot());
+        return copy;
+    }
+
+    // log every change from here on, so apply and undo can step through the game and back. Costs a little on
+    // every change, so only games that search through should turn it on
+    void enableUndo() {
+        if (undoLog != null) return;
+        undoLog = new UndoLog();
+        deck.setUndoLog(undoLog);
+        for (Player player : seats) {
+            player.setUndoLog(undoLog);
+        }
+    }
+
+    // one step of the turn under way that undo can take back - an action of the current player, or null to end
+    // their turn and start the next player's. Returns true if the step ended the turn with a win. The random
+    // source isn't rewound, so taking a step again after undo can shuffle or pick differently
+    boolean apply(Action action) {
+        if (undoLog == null) throw new IllegalStateException("Undo is not enabled for this game");
+        if (currentSeat < 0) throw new IllegalStateException("No turn under way");
+
+        undoLog.mark();
+        Player currentPlayer = seats[currentSeat];
+        if (action != null) {
+            currentPlayer.performAction(this, action);
+            return false;
+        }
+
+        if (currentPlayer.endTurn(this)) return true;
+        refillGarden();
+        nextPlayer();
+        seats[currentSeat].startTurn(this);
+        return false;
+    }
+
+    // take back the last step still applied
+    void undo() {
+        if (undoLog == null) throw new IllegalStateException("Undo is not enabled for this game");
+        undoLog.undo();
+        for (Player player : seats) {
+            player.updateSeat();
+        }
+    }
+
+    int getUndoDepth() {
+        return undoLog == null ? 0 : undoLog.getDepth();
+    }
+
+    @Override
+    public void revert(int operation, int argument) {
+        switch (operation) {
+            case GARDEN_ADDED_FIRST:
+                garden.removeFirst();
+                break;
+            case GARDEN_REMOVED:
+                garden.add(argument >>> POSITION_SHIFT, Card.byOrdinal(argument & ((1 << POSITION_SHIFT) - 1)));
+                break;
+            case SET_CURRENT_SEAT:
+                currentSeat = argument;
+                break;
+            case SET_TURN_COUNTER:
+            default:
+                turnCounter = argument;
+                break;
+        }
+    }
+
+    // deal the cards the observer can't see again at random, for a search that mustn't peek - opponents' hands,
+    // every deck and the garden deck are pooled and refilled to their sizes. Cards the observer put on top of
+    // its own deck stay there, and its hand, the garden and discard piles stay as they are
+    void determinize(Player observer, SplittableRandom random) {
+        if (unseenInHand == null) {
+            unseenInHand = new int[seats.length];
+            unseenInDeck = new int[seats.length];
+        }
+        unseen.clear();
+        for (int seat = 0; seat < seats.length; seat++) {
+            Player player = seats[seat];
+            int keepOnTop = player == observer ? player.getKnownOnTop() : 0;
+            unseenInHand[seat] = player == observer ? 0 : player.getHandSize();
+            unseenInDeck[seat] = player.getDeckSize() - keepOnTop;
+            player.takeUnseen(unseen, player != observer, keepOnTop);
+        }
+        for (Card card; (card = deck.removeFirst()) != null; ) {
+            unseen.add(card);
+        }
+
+        Randoms.shuffle(unseen, random);
+        int next = 0;
+        for (int seat = 0; seat < seats.length; seat++) {
+            next = seats[seat].dealUnseen(unseen, next, unseenInHand[seat], unseenInDeck[seat]);
+        }
+        for (; next < unseen.size(); next++) {
+            deck.addLast(unseen.get(next));
+        }
+    }
+
+    // copy the state of the game into a reusable snapshot, so search can try a continuation and come back
+    void snapshot(GameSnapshot snapshot) {
+        snapshot.rewind();
+        snapshot.putInt(seats.length);
+        snapshot.putInt(turnCounter);
+        snapshot.putInt(currentSeat);
+        snapshot.putInt(garden.size());
+        for (Card card : garden) {
+            snapshot.putCard(card);
+        }
+        deck.save(snapshot);
+        for (Player player : seats) {
+            player.save(snapshot);
+        }
+    }
+
+    GameSnapshot snapshot() {
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    // put the game back the way it was when the snapshot was taken
+    void restore(GameSnapshot snapshot) {
+        snapshot.rewind();
+        if (snapshot.getInt() != seats.length) {
+            throw new IllegalStateException("Snapshot is from a game with a different number of players");
+        }
+        turnCounter = snapshot.getInt();
+        currentSeat = snapshot.getInt();
+        garden.clear();
+        for (int i = snapshot.getInt(); i > 0; i--) {
+            garden.addLast(snapshot.getCard());
+        }
+        deck.restore(snapshot);
+        for (Player player : seats) {
+            player.restore(snapshot);
+        }
+
+        // the steps logged so far lead to some other state
+        if (undoLog != null) undoLog.clear();
+    }
+
     static class Builder {
         private List<Player> players = new ArrayList<>();
         private List<Card> deck = new ArrayList<>();
         private Set<Logger> loggers = new HashSet<>();
+        private Long seed;
+        private int maxTurns = DEFAULT_MAX_TURNS;
+        private boolean shuffleSeats = true;
+        private boolean lazyShuffle = false;
 
         Builder addPlayer(Player player) {
             players.add(player);
@@ -126,20 +472,83 @@ class Game {
             return this;
         }
 
+        Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        Builder setMaxTurns(int maxTurns) {
+            if (maxTurns < 1) throw new IllegalArgumentException("Max turns must be positive: " + maxTurns);
+            this.maxTurns = maxTurns;
+            return this;
+        }
+
+        // seat players in the order they were added instead of shuffling - for controlling seat position
+        Builder keepSeatOrder() {
+            this.shuffleSeats = false;
+            return this;
+        }
+
+        // player decks are shuffled as cards are drawn instead of all at once - same odds, different card order
+        // for a given seed, so seeded results don't carry over between the two
+        Builder lazyShuffle() {
+            this.lazyShuffle = true;
+            return this;
+        }
+
         void start(int ... startingDeckSizes) {
+            build(startingDeckSizes).start();
+        }
+
+        // the setup as text, equal for builders that deal the same kind of game whatever the seed - tells apart
+        // runs whose results shouldn't be mixed
+        String describe(int ... startingDeckSizes) {
+            if (startingDeckSizes.length != players.size()) {
+                throw new IllegalStateException("Number of deck sizes not equal to number of players");
+            }
+
+            int[] counts = new int[Card.count()];
+            for (Card card : deck) {
+                counts[card.ordinal()] ++;
+            }
+            StringBuilder description = new StringBuilder("deck");
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) description.append(' ').append(Card.byOrdinal(i).name()).append('x').append(counts[i]);
+            }
+
+            description.append(", players");
+            for (int i = 0; i < players.size(); i++) {
+                Player player = players.get(i);
+                description.append(' ').append(player.getName())
+                        .append('=').append(player.getStrategy().getClass().getSimpleName())
+                        .append('/').append(startingDeckSizes[i]);
+            }
+
+            description.append(", max turns ").append(maxTurns);
+            if (!shuffleSeats) description.append(", seat order kept");
+            if (lazyShuffle) description.append(", lazy shuffle");
+            return description.toString();
+        }
+
+        // set up the game without playing it
+        Game build(int ... startingDeckSizes) {
             if (startingDeckSizes.length != players.size()) {
                 throw new IllegalStateException("Number of deck sizes not equal to number of players");
             }
 
-            Collections.shuffle(players);
-            Collections.shuffle(deck);
+            // unseeded games get a fresh seed, so they can still be replayed
+            long seed = this.seed != null ? this.seed : new SplittableRandom().nextLong();
+            SplittableRandom random = new SplittableRandom(seed);
+
+            if (shuffleSeats) Randoms.shuffle(players, random);
+            Randoms.shuffle(deck, random);
 
-            // initialize player decks
+            // initialize player decks - each player gets its own split of the game's random source
             for (int i = 0; i < players.size(); i++) {
-                players.get(i).initialize(startingDeckSizes[i]);
+                players.get(i).initialize(startingDeckSizes[i], random.split(), lazyShuffle);
             }
 
-            new Game(players, deck, loggers).start();
+            return new Game(players, deck, loggers, seed, random, maxTurns);
         }
     }
 }
@@ -0,0 +1,37 @@
+import java.util.Arrays;
+
+// flat copy of a game's mutable state, reused between snapshots so look-ahead search does not allocate
+// random sources are not captured - play after a restore draws fresh randomness, as a sampled continuation should
+class GameSnapshot {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] ints = new int[INITIAL_CAPACITY];
+    private byte[] cards = new byte[INITIAL_CAPACITY];
+    private int intPosition = 0;
+    private int cardPosition = 0;
+
+    // start writing a new snapshot over the old one, or reading it back from the beginning
+    void rewind() {
+        intPosition = 0;
+        cardPosition = 0;
+    }
+
+    void putInt(int value) {
+        if (intPosition == ints.length) ints = Arrays.copyOf(ints, ints.length * 2);
+        ints[intPosition++] = value;
+    }
+
+    int getInt() {
+        return ints[intPosition++];
+    }
+
+    void putCard(Card card) {
+        if (cardPosition == cards.length) cards = Arrays.copyOf(cards, cards.length * 2);
+        cards[cardPosition++] = (byte) card.ordinal();
+    }
+
+    Card getCard() {
+        return Card.byOrdinal(cards[cardPosition++]);
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// text trace of seeded games - every event with the whole game state after it - recorded from the reference
+// engine and replayed against changed ones. The state on each line catches card movements the events don't show
+class GoldenTrace implements Logger {
+
+    private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.allOf(Event.class));
+    private static final String HEADER = "# golden trace v1";
+    private static final String GAME = "game ";
+    static final Path DEFAULT_FILE = Paths.get("golden", "reference.trace.gz");
+
+    // every card type in the deck and every strategy at the table, so each rule gets exercised
+    static final Engine REFERENCE = (seed, logger) -> {
+        Game.Builder builder = new Game.Builder()
+                .addPlayer(new Player("Random", new RandomStrategy()))
+                .addPlayer(new Player("Bulk", new BulkNaiveStrategy()))
+                .addPlayer(new Player("Slim", new SlimNaiveStrategy()))
+                .addPlayer(new Player("Deck", new DeckNaiveStrategy()));
+        for (Card card : Card.values()) {
+            if (card != Card.ARTICHOKE) builder.addToDeck(card, 5);
+        }
+        builder.addLogger(logger).setSeed(seed).start(10, 10, 10, 10);
+    };
+
+    private final List<String> lines = new ArrayList<>();
+    private Game game;
+
+    // the trace of one game, ending with the error if the engine threw one
+    static List<String> trace(Engine engine, long seed) {
+        GoldenTrace trace = new GoldenTrace();
+        try {
+            engine.playGame(seed, trace);
+        } catch (RuntimeException e) {
+            trace.lines.add("error " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        return trace.lines;
+    }
+
+    static void record(Engine engine, Path file, int numberOfGames, long masterSeed) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+            out.println(HEADER);
+            for (int i = 0; i < numberOfGames; i++) {
+                long seed = Randoms.seedFor(masterSeed, i);
+                out.println(GAME + i + " " + seed);
+                for (String line : trace(engine, seed)) {
+                    out.println(line);
+                }
+            }
+        }
+    }
+
+    // replays every recorded game and reports the first event that differs, with the event that led to it
+    static boolean verify(Engine engine, Path file, PrintStream out) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line = in.readLine();
+            if (!HEADER.equals(line)) throw new IllegalStateException("Not a golden trace: " + file);
+
+            int games = 0;
+            line = in.readLine();
+            while (line != null) {
+                if (!line.startsWith(GAME)) throw new IllegalStateException("Expected a game line: " + line);
+                String[] game = line.substring(GAME.length()).split(" ");
+                long seed = Long.parseLong(game[1]);
+
+                List<String> expected = new ArrayList<>();
+                while ((line = in.readLine()) != null && !line.startsWith(GAME)) {
+                    expected.add(line);
+                }
+                List<String> actual = trace(engine, seed);
+
+                for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+                    String want = i < expected.size() ? expected.get(i) : "(end of game)";
+                    String got = i < actual.size() ? actual.get(i) : "(end of game)";
+                    if (want.equals(got)) continue;
+
+                    out.println("Diverged in game " + game[0] + " (seed " + seed + ") at event " + i);
+                    if (i > 0) out.println("  after:    " + expected.get(i - 1));
+                    out.println("  expected: " + want);
+                    out.println("  actual:   " + got);
+                    return false;
+                }
+                games ++;
+            }
+            out.println("All " + games + " games match");
+            return true;
+        }
+    }
+
+    // usage: GoldenTrace record [file [games [seed]]] | GoldenTrace verify [file]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) throw new IllegalArgumentException("Usage: GoldenTrace record|verify [file ...]");
+        Path file = args.length > 1 ? Paths.get(args[1]) : DEFAULT_FILE;
+
+        if (args[0].equals("record")) {
+            int games = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+            record(REFERENCE, file, games, seed);
+            System.out.println("Recorded " + games + " games to " + file);
+        } else if (args[0].equals("verify")) {
+            if (!verify(REFERENCE, file, System.out)) System.exit(1);
+        } else {
+            throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    private void add(String event) {
+        StringBuilder line = new StringBuilder(event).append(" | turn ").append(game.getNumberOfTurnsTaken())
+                .append(" garden ").append(cards(game.getGarden()))
+                .append(" gardenDeck ").append(cards(game.getGardenDeck()));
+        for (Player player : game.getPlayers()) {
+            line.append(" | ").append(player.getName())
+                    .append(" turns ").append(player.getNumberOfTurnsTaken())
+                    .append(" hand ").append(cards(player.getHand()))
+                    .append(" deck ").append(cards(player.getDeck()))
+                    .append(" discard ").append(cards(player.getDiscard()));
+        }
+        lines.add(line.toString());
+    }
+
+    private static String cards(List<Card> cards) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) text.append(',');
+            text.append(cards.get(i).name());
+        }
+        return text.append(']').toString();
+    }
+
+    @Override
+    public Set<Event> getEvents() {
+        return EVENTS;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        this.game = game;
+        add("started");
+    }
+
+    @Override
+    public void gardenRefreshed(List<Card> garden) {
+        add("garden refreshed");
+    }
+
+    @Override
+    public void startTurn(Player player) {
+        add("start turn " + player.getName());
+    }
+
+    @Override
+    public void cardPlanted(Card card) {
+        add("planted " + (card == null ? "nothing" : card.name()));
+    }
+
+    @Override
+    public void actionChosen(Action action) {
+        add("chose " + action);
+    }
+
+    @Override
+    public void endTurn(Player player) {
+        add("end turn " + player.getName());
+    }
+
+    @Override
+    public void gameOver(Game game) {
+        add("winner " + game.getCurrentPlayer().getName());
+    }
+
+    @Override
+    public void gameStalled(Game game) {
+        add("stalled");
+    }
+
+    // plays the game with this seed, reporting every event to the logger
+    interface Engine {
+
+        void playGame(long seed, Logger logger);
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+// fixed-bucket counts for small non-negative values, with one overflow bucket for anything above the cap
+class Histogram {
+
+    private final int[] buckets;
+    private int overflow = 0;
+    private int total = 0;
+
+    Histogram(int maxValue) {
+        buckets = new int[maxValue + 1];
+    }
+
+    int getMaxValue() {
+        return buckets.length - 1;
+    }
+
+    int get(int value) {
+        return buckets[value];
+    }
+
+    int getOverflow() {
+        return overflow;
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    void add(int value) {
+        if (value < 0) throw new IllegalArgumentException("Negative histogram value: " + value);
+        if (value < buckets.length) {
+            buckets[value] ++;
+        } else {
+            overflow ++;
+        }
+        total ++;
+    }
+
+    void merge(Histogram other) {
+        if (other.buckets.length != buckets.length) {
+            throw new IllegalArgumentException("Histogram sizes differ: " + buckets.length + ", " + other.buckets.length);
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        overflow += other.overflow;
+        total += other.total;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(buckets.length);
+        for (int count : buckets) {
+            out.writeInt(count);
+        }
+        out.writeInt(overflow);
+        out.writeInt(total);
+    }
+
+    // adds counts written by write - the caps have to match, as in merge
+    void read(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length != buckets.length) {
+            throw new IllegalStateException("Histogram sizes differ: " + buckets.length + ", " + length);
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += in.readInt();
+        }
+        overflow += in.readInt();
+        total += in.readInt();
+    }
+
+    // overflowed values count as one past the cap
+    double mean() {
+        if (total == 0) return Double.NaN;
+        long sum = (long) buckets.length * overflow;
+        for (int i = 0; i < buckets.length; i++) {
+            sum += (long) i * buckets[i];
+        }
+        return (double) sum / total;
+    }
+
+    // overflowed values count as one past the cap, as in the mean
+    double variance() {
+        if (total < 2) return Double.NaN;
+        double mean = mean();
+        double sum = overflow * (buckets.length - mean) * (buckets.length - mean);
+        for (int i = 0; i < buckets.length; i++) {
+            sum += buckets[i] * (i - mean) * (i - mean);
+        }
+        return sum / (total - 1);
+    }
+
+    // smallest value with at least the given fraction of entries at or below it
+    int percentile(double fraction) {
+        if (total == 0) return -1;
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) return i;
+        }
+        return buckets.length;
+    }
+
+    // prints non-empty buckets, most common first
+    void print(int percentBase) {
+        print(percentBase, Integer::toString);
+    }
+
+    void print(int percentBase, IntFunction<String> label) {
+        int[] order = new int[buckets.length];
+        int size = 0;
+        for (int i = buckets.length - 1; i >= 0; i--) {
+            if (buckets[i] > 0) order[size++] = i;
+        }
+
+        // insertion sort by count - stable, so ties keep the larger value first
+        for (int i = 1; i < size; i++) {
+            int value = order[i];
+            int j = i - 1;
+            while (j >= 0 && buckets[order[j]] < buckets[value]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+
+        for (int i = 0; i < size; i++) {
+            printLine(label.apply(order[i]), buckets[order[i]], percentBase);
+        }
+        if (overflow > 0) printLine(">" + getMaxValue(), overflow, percentBase);
+    }
+
+    static void printLine(String label, int count, int percentBase) {
+        System.out.println(label + " - " + count + " (" + (Math.round((count * 100f) / percentBase)) + "%)");
+    }
+}
@@ -1,7 +1,13 @@
 import java.util.List;
+import java.util.Set;
 
 interface Logger {
 
+    // events this logger wants - the game only dispatches these
+    Set<Event> getEvents();
+
+    void gameStarted(Game game);
+
     void gardenRefreshed(List<Card> garden);
 
     void startTurn(Player player);
@@ -13,4 +19,17 @@ interface Logger {
     void endTurn(Player player);
 
     void gameOver(Game game);
+
+    void gameStalled(Game game);
+
+    enum Event {
+        GAME_STARTED,
+        GARDEN_REFRESHED,
+        START_TURN,
+        CARD_PLANTED,
+        ACTION_CHOSEN,
+        END_TURN,
+        GAME_OVER,
+        GAME_STALLED
+    }
 }
@@ -1,6 +1,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 class ManualStrategy implements Strategy {
@@ -11,6 +12,11 @@ class ManualStrategy implements Strategy {
         scanner = new Scanner(System.in);
     }
 
+    @Override
+    public void initialize(final SplittableRandom random) {
+        // no-op
+    }
+
     @Override
     public Action chooseNextAction(final Game game) {
         if (!game.getCurrentPlayer().canHarvest(game) && !game.getCurrentPlayer().hasCardsToPlay(game)) {
@@ -35,7 +41,7 @@ class ManualStrategy implements Strategy {
                 .collect(Collectors.joining(", ")));
         System.out.println("Hand: " + game.getCurrentPlayer().getHand().stream().map(Enum::name)
                 .collect(Collectors.joining(", ")));
-        System.out.print("Deck: " + game.getCurrentPlayer().getDeck().size() + " - Discard: ");
+        System.out.print("Deck: " + game.getCurrentPlayer().getDeckSize() + " - Discard: ");
         System.out.println(game.getCurrentPlayer().getDiscard().stream().map(Enum::name)
                 .collect(Collectors.joining(", ")));
         System.out.println();
@@ -0,0 +1,432 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// picks each action by Monte Carlo tree search over the player's own decisions. Every rollout deals the cards
+// the player can't see again, walks the tree from the current decision through the player's later ones with
+// UCB1, adds one new decision to it and plays on at random. Opponents' moves aren't in the tree - they are part
+// of what a rollout samples. The choices made while resolving each first action are counted alongside it, and
+// the secondary decisions (opponent, card for top of deck, ...) are answered from those counts.
+// Rollouts run as a fixed number of streams, each with its own tree and random source, on a pool shared by every
+// instance - so running many searching games at once does not multiply threads
+class MctsStrategy extends RandomStrategy {
+
+    private static final int DEFAULT_ITERATIONS = 500;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int STREAMS = 4;
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "mcts-rollouts");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // actions by code - ending the turn, then a harvest and a play per card ordinal
+    private static final int END_TURN = 0;
+    private static final int HARVEST = 1;
+    private static final int PLAY = HARVEST + Card.count();
+    private static final int ACTIONS = PLAY + Card.count();
+    private static final Action[] ACTION_BY_CODE = new Action[ACTIONS];
+
+    // secondary choices by kind and card ordinal or seat, with a visit and a win count each
+    private static final int TOP = 0;
+    private static final int DISCARD = 1;
+    private static final int GIVE = 2;
+    private static final int GIVE_NON_ARTICHOKE = 3;
+    private static final int WANT = 4;
+    private static final int REFUSE = 5;
+    private static final int OPPONENT = 6;
+    private static final int SLOTS = Long.SIZE;
+    private static final int CHOICES = 7 * SLOTS;
+
+    static {
+        for (int i = 0; i < Card.count(); i++) {
+            ACTION_BY_CODE[HARVEST + i] = new Action(Action.Type.HARVEST, Card.byOrdinal(i));
+            ACTION_BY_CODE[PLAY + i] = new Action(Action.Type.PLAY, Card.byOrdinal(i));
+        }
+    }
+
+    private final int iterations;
+    private final long millis;
+    private final int[] legal = new int[ACTIONS];
+
+    private SplittableRandom random = new SplittableRandom();
+    private Game searchedGame;
+    private Stream[] streams;
+    private int[] choices;
+    private Game choicesGame;
+    private int choicesTurn;
+
+    MctsStrategy() {
+        this(DEFAULT_ITERATIONS, 0);
+    }
+
+    // budget per decision - stop after either the rollout count or the time in milliseconds, zero for no limit
+    MctsStrategy(int iterations, long millis) {
+        if (iterations < 0 || millis < 0) throw new IllegalArgumentException("Search budget must not be negative");
+        if (iterations == 0 && millis == 0) throw new IllegalArgumentException("Search needs a rollout or time limit");
+        this.iterations = iterations == 0 ? Integer.MAX_VALUE : iterations;
+        this.millis = millis;
+    }
+
+    @Override
+    public void initialize(final SplittableRandom random) {
+        super.initialize(random.split());
+        this.random = random;
+    }
+
+    @Override
+    public Action chooseNextAction(final Game game) {
+        // choices only answer for the turn they were searched in, not for opponents' cards later
+        choices = null;
+        choicesGame = game;
+        choicesTurn = game.getNumberOfTurnsTaken();
+
+        int count = legalActions(game, legal);
+        if (count == 1) return ACTION_BY_CODE[legal[0]];
+
+        // rollout games are built once per game and reset from a snapshot for every decision
+        if (searchedGame != game) {
+            streams = new Stream[STREAMS];
+            for (int i = 0; i < streams.length; i++) {
+                streams[i] = new Stream(game, random.split());
+            }
+            searchedGame = game;
+        }
+
+        long deadline = millis == 0 ? Long.MAX_VALUE : System.nanoTime() + millis * 1_000_000;
+        for (int i = 0; i < streams.length; i++) {
+            // split the rollouts evenly over the fixed streams, so an iteration budget gives the same answer on
+            // any machine - only how many streams run at once depends on the cores
+            int share = iterations == Integer.MAX_VALUE ? iterations
+                    : iterations / streams.length + (i < iterations % streams.length ? 1 : 0);
+            streams[i].prepare(game, share, deadline);
+        }
+        search();
+
+        // most visited first action is the most robust pick, then answer later choices from what its rollouts did
+        int best = legal[0];
+        int bestVisits = -1;
+        for (int i = 0; i < count; i++) {
+            int visits = 0;
+            for (Stream stream : streams) {
+                Node child = stream.root.children[legal[i]];
+                if (child != null) visits += child.visits;
+            }
+            if (visits > bestVisits) {
+                best = legal[i];
+                bestVisits = visits;
+            }
+        }
+        choices = new int[CHOICES * 2];
+        for (Stream stream : streams) {
+            int[] stats = stream.choiceStats[best];
+            if (stats == null) continue;
+            for (int i = 0; i < choices.length; i++) {
+                choices[i] += stats[i];
+            }
+        }
+        return ACTION_BY_CODE[best];
+    }
+
+    @Override
+    public Card pickCardForTopOfDeck(final List<Card> cards) {
+        Card card = bestCard(TOP, cards, false);
+        return card != null ? card : super.pickCardForTopOfDeck(cards);
+    }
+
+    @Override
+    public Player chooseOpponent(final List<Player> players) {
+        Player choice = null;
+        double bestRate = -1;
+        for (Player player : players) {
+            double rate = winRate(OPPONENT, player.getSeat());
+            if (rate > bestRate) {
+                choice = player;
+                bestRate = rate;
+            }
+        }
+        return choice != null ? choice : super.chooseOpponent(players);
+    }
+
+    @Override
+    public Card pickNonArtichokeToDiscard(final List<Card> cards) {
+        Card card = bestCard(DISCARD, cards, true);
+        return card != null ? card : super.pickNonArtichokeToDiscard(cards);
+    }
+
+    @Override
+    public Card pickCardToGiveOpponent(final List<Card> cards) {
+        Card card = bestCard(GIVE, cards, false);
+        return card != null ? card : super.pickCardToGiveOpponent(cards);
+    }
+
+    @Override
+    public Card pickNonArtichokeToGiveOpponent(final List<Card> cards) {
+        Card card = bestCard(GIVE_NON_ARTICHOKE, cards, true);
+        return card != null ? card : super.pickNonArtichokeToGiveOpponent(cards);
+    }
+
+    @Override
+    public boolean doesWantCard(final Card card) {
+        double want = winRate(WANT, card.ordinal());
+        double refuse = winRate(REFUSE, card.ordinal());
+        if (want < 0 && refuse < 0) return super.doesWantCard(card);
+        return want >= refuse;
+    }
+
+    // codes of every distinct legal action for the current player - ending the turn only once harvesting is done
+    private static int legalActions(final Game game, final int[] codes) {
+        Player player = game.getCurrentPlayer();
+        boolean canHarvest = player.canHarvest(game);
+        int count = 0;
+        for (int i = 0; i < Card.count(); i++) {
+            Card card = Card.byOrdinal(i);
+            if (canHarvest && game.getGarden().contains(card)) codes[count++] = HARVEST + i;
+            if (player.countInHand(card) > 0 && card.canBePlayed(game)) codes[count++] = PLAY + i;
+        }
+        if (!canHarvest) codes[count++] = END_TURN;
+        return count;
+    }
+
+    private void search() {
+        // the deciding thread takes a stream instead of waiting idle
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < streams.length; i++) {
+            futures.add(POOL.submit(streams[i]::run));
+        }
+        streams[0].run();
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollout failed", e.getCause());
+        }
+    }
+
+    private Card bestCard(final int kind, final List<Card> cards, final boolean skipArtichokes) {
+        Card choice = null;
+        double bestRate = -1;
+        for (Card card : cards) {
+            if (skipArtichokes && card == Card.ARTICHOKE) continue;
+            double rate = winRate(kind, card.ordinal());
+            if (rate > bestRate) {
+                choice = card;
+                bestRate = rate;
+            }
+        }
+        return choice;
+    }
+
+    // share of rollouts won after making a choice, or -1 if no rollout made it
+    private double winRate(final int kind, final int value) {
+        if (choices == null || choicesGame.getNumberOfTurnsTaken() != choicesTurn) return -1;
+        int choice = kind * SLOTS + value;
+        int visits = choices[choice * 2];
+        if (visits == 0) return -1;
+        return (double) choices[choice * 2 + 1] / visits;
+    }
+
+    // a decision of the searching player, reached by the actions leading to it - opponents' moves in between
+    // differ from rollout to rollout, so a child only counts as available when its action was legal
+    private static class Node {
+        private final Node[] children = new Node[ACTIONS];
+        private int visits;
+        private int wins;
+        private int available;
+    }
+
+    // one share of the search, with its own tree and copy of the game so rollouts never touch shared state
+    private static class Stream {
+        private final GameSnapshot snapshot = new GameSnapshot();
+        private final SplittableRandom random;
+        private final TreeStrategy searcher;
+        private final Game copy;
+        private final Player observer;
+
+        private int iterations;
+        private long deadline;
+        private Node root;
+        private final int[][] choiceStats = new int[ACTIONS][];
+
+        Stream(final Game game, final SplittableRandom random) {
+            this.random = random;
+            this.searcher = new TreeStrategy();
+            Player current = game.getCurrentPlayer();
+            this.copy = game.copy(player -> player == current ? searcher : new RandomStrategy(), random.split());
+            this.observer = copy.getCurrentPlayer();
+        }
+
+        void prepare(final Game game, final int iterations, final long deadline) {
+            game.snapshot(snapshot);
+            this.iterations = iterations;
+            this.deadline = deadline;
+            root = new Node();
+            Arrays.fill(choiceStats, null);
+        }
+
+        void run() {
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                copy.restore(snapshot);
+                copy.determinize(observer, random);
+                searcher.startRollout(root);
+
+                Player winner = copy.playOut();
+                int won = winner == observer ? 1 : 0;
+                for (Node node : searcher.path) {
+                    node.visits ++;
+                    node.wins += won;
+                }
+
+                int[] stats = choiceStats[searcher.firstAction];
+                if (stats == null) stats = choiceStats[searcher.firstAction] = new int[CHOICES * 2];
+                for (int j = 0; j < searcher.madeCount; j++) {
+                    stats[searcher.made[j] * 2] ++;
+                    stats[searcher.made[j] * 2 + 1] += won;
+                }
+                searcher.endRollout();
+            }
+        }
+    }
+
+    // walks the tree while the searching player's decisions are in it, then plays at random. Choices made while
+    // resolving the first action are picked uniformly at random and noted down
+    private static class TreeStrategy extends RandomStrategy {
+        private final List<Node> path = new ArrayList<>();
+        private final int[] legal = new int[ACTIONS];
+        private SplittableRandom random = new SplittableRandom();
+        private Node root;
+        private Node node;
+        private int firstAction;
+        private boolean recording = false;
+        private int[] made = new int[16];
+        private int madeCount;
+
+        @Override
+        public void initialize(final SplittableRandom random) {
+            super.initialize(random.split());
+            this.random = random;
+        }
+
+        void startRollout(final Node root) {
+            this.root = root;
+            node = root;
+            path.clear();
+            madeCount = 0;
+        }
+
+        void endRollout() {
+            node = null;
+            recording = false;
+        }
+
+        @Override
+        public Action chooseNextAction(final Game game) {
+            // the action before this one is resolved
+            recording = false;
+            if (node == null) return super.chooseNextAction(game);
+
+            int count = legalActions(game, legal);
+            int untried = 0;
+            for (int i = 0; i < count; i++) {
+                Node child = node.children[legal[i]];
+                if (child == null) untried ++;
+                else child.available ++;
+            }
+
+            Node parent = node;
+            int code = -1;
+            if (untried > 0) {
+                // expand one untried action, then leave the tree
+                int pick = random.nextInt(untried);
+                for (int i = 0; code < 0; i++) {
+                    if (parent.children[legal[i]] == null && pick-- == 0) code = legal[i];
+                }
+                Node child = new Node();
+                child.available = 1;
+                parent.children[code] = child;
+                path.add(child);
+                node = null;
+            } else {
+                double bestScore = -1;
+                for (int i = 0; i < count; i++) {
+                    Node child = parent.children[legal[i]];
+                    double score = (double) child.wins / child.visits
+                            + EXPLORATION * Math.sqrt(Math.log(child.available) / child.visits);
+                    if (score > bestScore) {
+                        code = legal[i];
+                        bestScore = score;
+                    }
+                }
+                node = parent.children[code];
+                path.add(node);
+            }
+
+            if (parent == root) {
+                firstAction = code;
+                recording = true;
+            }
+            return ACTION_BY_CODE[code];
+        }
+
+        @Override
+        public Card pickCardForTopOfDeck(final List<Card> cards) {
+            if (!recording) return super.pickCardForTopOfDeck(cards);
+            return record(TOP, cards.get(random.nextInt(cards.size())));
+        }
+
+        @Override
+        public Player chooseOpponent(final List<Player> players) {
+            if (!recording) return super.chooseOpponent(players);
+            Player player = players.get(random.nextInt(players.size()));
+            record(OPPONENT * SLOTS + player.getSeat());
+            return player;
+        }
+
+        @Override
+        public Card pickNonArtichokeToDiscard(final List<Card> cards) {
+            if (!recording) return super.pickNonArtichokeToDiscard(cards);
+            return record(DISCARD, super.pickNonArtichokeToDiscard(cards));
+        }
+
+        @Override
+        public Card pickCardToGiveOpponent(final List<Card> cards) {
+            if (!recording) return super.pickCardToGiveOpponent(cards);
+            return record(GIVE, cards.get(random.nextInt(cards.size())));
+        }
+
+        @Override
+        public Card pickNonArtichokeToGiveOpponent(final List<Card> cards) {
+            if (!recording) return super.pickNonArtichokeToGiveOpponent(cards);
+            return record(GIVE_NON_ARTICHOKE, super.pickNonArtichokeToGiveOpponent(cards));
+        }
+
+        @Override
+        public boolean doesWantCard(final Card card) {
+            if (!recording) return super.doesWantCard(card);
+            boolean want = random.nextBoolean();
+            record((want ? WANT : REFUSE) * SLOTS + card.ordinal());
+            return want;
+        }
+
+        private Card record(final int kind, final Card card) {
+            if (card != null) record(kind * SLOTS + card.ordinal());
+            return card;
+        }
+
+        private void record(final int choice) {
+            if (madeCount == made.length) made = Arrays.copyOf(made, madeCount * 2);
+            made[madeCount++] = choice;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// compares two strategies with common random numbers - both play every game index from the same seed, so they
+// get the same seats, shuffles and gardens, and the difference in wins only carries the noise that is left
+class PairedComparison {
+
+    private static final String CANDIDATE = "Candidate";
+    private static final double CONFIDENCE = 0.95;
+
+    private final String first;
+    private final String second;
+    private final List<String> opponents = new ArrayList<>();
+    private int numberOfGames = 10000;
+    private int startingDeckSize = 10;
+    private long masterSeed = 0;
+
+    PairedComparison(String first, String second) {
+        Strategies.byName(first);
+        Strategies.byName(second);
+        this.first = first;
+        this.second = second;
+    }
+
+    PairedComparison addOpponent(String strategy) {
+        Strategies.byName(strategy);
+        opponents.add(strategy);
+        return this;
+    }
+
+    PairedComparison setNumberOfGames(int games) {
+        numberOfGames = games;
+        return this;
+    }
+
+    PairedComparison setStartingDeckSize(int size) {
+        startingDeckSize = size;
+        return this;
+    }
+
+    PairedComparison setSeed(long seed) {
+        masterSeed = seed;
+        return this;
+    }
+
+    Result run(int numberOfThreads) {
+        if (opponents.isEmpty()) throw new IllegalStateException("Comparison needs at least one opponent");
+
+        // each game index is played once by each strategy
+        return new BatchRunner(numberOfThreads).run(0, numberOfGames, Result::new, Result::merge,
+                (gameIndex, result) -> result.add(playGame(first, gameIndex), playGame(second, gameIndex)));
+    }
+
+    // true if the candidate won
+    private boolean playGame(String candidate, int gameIndex) {
+        // same players in the same order for both strategies, so the seed seats them the same way
+        Player player = new Player(CANDIDATE, Strategies.byName(candidate).get());
+        Game.Builder builder = Runner.addDeck(new Game.Builder()).addPlayer(player);
+        for (int i = 0; i < opponents.size(); i++) {
+            builder.addPlayer(new Player((i + 1) + "-" + opponents.get(i), Strategies.byName(opponents.get(i)).get()));
+        }
+
+        int[] startingDeckSizes = new int[opponents.size() + 1];
+        Arrays.fill(startingDeckSizes, startingDeckSize);
+        WinnerSeat winner = new WinnerSeat();
+        builder.addLogger(winner)
+                .setSeed(Randoms.seedFor(masterSeed, gameIndex))
+                .start(startingDeckSizes);
+        return winner.seat == player.getSeat();
+    }
+
+    // usage: PairedComparison <strategyA> <strategyB> [games [seed [opponent ...]]]
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "Usage: PairedComparison <strategyA> <strategyB> [games [seed [opponent ...]]]");
+        }
+
+        PairedComparison comparison = new PairedComparison(args[0], args[1])
+                .setNumberOfGames(args.length > 2 ? Integer.parseInt(args[2]) : 10000)
+                .setSeed(args.length > 3 ? Long.parseLong(args[3]) : 0);
+        if (args.length > 4) {
+            for (int i = 4; i < args.length; i++) {
+                comparison.addOpponent(args[i]);
+            }
+        } else {
+            comparison.addOpponent("Random").addOpponent("Random");
+        }
+        comparison.run(Runtime.getRuntime().availableProcessors()).print(args[0], args[1], CONFIDENCE, System.out);
+    }
+
+    // seat of the game's winner, or -1 if it stalled
+    private static class WinnerSeat implements Logger {
+
+        private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.of(Event.GAME_OVER));
+
+        private int seat = -1;
+
+        @Override
+        public Set<Event> getEvents() {
+            return EVENTS;
+        }
+
+        @Override
+        public void gameStarted(Game game) {
+            // no-op
+        }
+
+        @Override
+        public void gardenRefreshed(List<Card> garden) {
+            // no-op
+        }
+
+        @Override
+        public void startTurn(Player player) {
+            // no-op
+        }
+
+        @Override
+        public void cardPlanted(Card card) {
+            // no-op
+        }
+
+        @Override
+        public void actionChosen(Action action) {
+            // no-op
+        }
+
+        @Override
+        public void endTurn(Player player) {
+            // no-op
+        }
+
+        @Override
+        public void gameOver(Game game) {
+            seat = game.getCurrentPlayer().getSeat();
+        }
+
+        @Override
+        public void gameStalled(Game game) {
+            // no-op
+        }
+    }
+
+    // outcome counts of the game pairs - enough for both win rates and the paired difference
+    static class Result {
+
+        private int bothWon = 0;
+        private int firstOnly = 0;
+        private int secondOnly = 0;
+        private int neitherWon = 0;
+
+        void add(boolean firstWon, boolean secondWon) {
+            if (firstWon && secondWon) bothWon ++;
+            else if (firstWon) firstOnly ++;
+            else if (secondWon) secondOnly ++;
+            else neitherWon ++;
+        }
+
+        void merge(Result other) {
+            bothWon += other.bothWon;
+            firstOnly += other.firstOnly;
+            secondOnly += other.secondOnly;
+            neitherWon += other.neitherWon;
+        }
+
+        int getPairs() {
+            return bothWon + firstOnly + secondOnly + neitherWon;
+        }
+
+        double getFirstWinRate() {
+            return (double) (bothWon + firstOnly) / getPairs();
+        }
+
+        double getSecondWinRate() {
+            return (double) (bothWon + secondOnly) / getPairs();
+        }
+
+        double getDifference() {
+            return (double) (firstOnly - secondOnly) / getPairs();
+        }
+
+        // standard error of the mean per-game difference - only pairs with different outcomes add variance
+        double getPairedStandardError() {
+            int n = getPairs();
+            if (n < 2) return Double.NaN;
+            double mean = getDifference();
+            double sumOfSquares = firstOnly + secondOnly - n * mean * mean;
+            return Math.sqrt(sumOfSquares / (n - 1) / n);
+        }
+
+        // what the standard error would be had the strategies played separate games
+        double getIndependentStandardError() {
+            int n = getPairs();
+            double a = getFirstWinRate();
+            double b = getSecondWinRate();
+            return Math.sqrt((a * (1 - a) + b * (1 - b)) / n);
+        }
+
+        void print(String first, String second, double confidence, PrintStream out) {
+            double z = Statistics.zScore(confidence);
+            double pairedError = getPairedStandardError();
+            double independentError = getIndependentStandardError();
+
+            out.println("Game pairs: " + getPairs());
+            out.println(String.format(Locale.ROOT, "%s win rate: %.2f%%", first, getFirstWinRate() * 100));
+            out.println(String.format(Locale.ROOT, "%s win rate: %.2f%%", second, getSecondWinRate() * 100));
+            out.println(String.format(Locale.ROOT, "Difference: %+.2f%% +/- %.2f%% (%.0f%% confidence)",
+                    getDifference() * 100, z * pairedError * 100, confidence * 100));
+            out.println(String.format(Locale.ROOT, "Standard error: %.3f%% paired, %.3f%% independent",
+                    pairedError * 100, independentError * 100));
+            if (pairedError > 0) {
+                out.println(String.format(Locale.ROOT, "Pairing needs %.1fx fewer games for the same precision",
+                        (independentError * independentError) / (pairedError * pairedError)));
+            }
+            out.println("Outcomes - both won: " + bothWon + ", only " + first + ": " + firstOnly
+                    + ", only " + second + ": " + secondOnly + ", neither: " + neitherWon);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// genetic search over SimpleStrategy play orders - a genome is a priority order over every harvest and play,
+// and its fitness is the win rate against the opponent pool on the same fixed set of games for every genome
+class PlayOrderEvolver {
+
+    private static final Action[] GENES = genes();
+    private static final int SELECTION_SIZE = 3;
+    private static final String EVOLVED = "Evolved";
+
+    private final List<String> opponents = new ArrayList<>();
+    private final List<int[]> startingOrders = new ArrayList<>();
+    private int populationSize = 40;
+    private int generations = 30;
+    private int gamesPerEvaluation = 2000;
+    private int opponentsPerGame = 2;
+    private int elites = 4;
+    private double mutationRate = 0.5;
+    private int startingDeckSize = 10;
+    private long masterSeed = 0;
+
+    // fitness of every genome seen so far - games are fixed, so a genome only ever needs playing once
+    private final Map<String, Double> fitnessCache = new HashMap<>();
+
+    PlayOrderEvolver addOpponent(String strategy) {
+        Strategies.byName(strategy);
+        opponents.add(strategy);
+        return this;
+    }
+
+    // put a known order in the first generation, e.g. one of the hand-tuned strategies
+    PlayOrderEvolver addStartingOrder(List<Action> playOrder) {
+        startingOrders.add(toGenome(playOrder));
+        return this;
+    }
+
+    PlayOrderEvolver setPopulationSize(int size) {
+        populationSize = size;
+        return this;
+    }
+
+    PlayOrderEvolver setGenerations(int generations) {
+        this.generations = generations;
+        return this;
+    }
+
+    PlayOrderEvolver setGamesPerEvaluation(int games) {
+        gamesPerEvaluation = games;
+        return this;
+    }
+
+    PlayOrderEvolver setOpponentsPerGame(int opponents) {
+        opponentsPerGame = opponents;
+        return this;
+    }
+
+    PlayOrderEvolver setElites(int elites) {
+        this.elites = elites;
+        return this;
+    }
+
+    PlayOrderEvolver setMutationRate(double rate) {
+        mutationRate = rate;
+        return this;
+    }
+
+    PlayOrderEvolver setStartingDeckSize(int size) {
+        startingDeckSize = size;
+        return this;
+    }
+
+    PlayOrderEvolver setSeed(long seed) {
+        masterSeed = seed;
+        return this;
+    }
+
+    // evolves the population and returns the best play order found
+    List<Action> evolve(int numberOfThreads, PrintStream progress) {
+        if (opponents.isEmpty()) throw new IllegalStateException("Evolver needs at least one opponent strategy");
+        if (elites >= populationSize) throw new IllegalStateException("Elites must be fewer than the population");
+
+        SplittableRandom random = new SplittableRandom(masterSeed);
+        List<int[]> population = new ArrayList<>();
+        for (int[] order : startingOrders) {
+            if (population.size() < populationSize) population.add(order.clone());
+        }
+        while (population.size() < populationSize) {
+            population.add(randomGenome(random));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            double[] fitness = evaluate(population, executor);
+            for (int generation = 1; generation <= generations; generation++) {
+                sortByFitness(population, fitness);
+                progress.println(String.format(Locale.ROOT, "Generation %d: best %.2f%%, mean %.2f%%",
+                        generation, fitness[0] * 100, Arrays.stream(fitness).average().orElse(0) * 100));
+                if (generation == generations) break;
+
+                // elites carry over unchanged, the rest are bred from tournament-selected parents
+                List<int[]> next = new ArrayList<>(population.subList(0, elites));
+                while (next.size() < populationSize) {
+                    int[] child = crossover(select(population, fitness, random), select(population, fitness, random),
+                            random);
+                    if (random.nextDouble() < mutationRate) mutate(child, random);
+                    next.add(child);
+                }
+                population = next;
+                fitness = evaluate(population, executor);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return toPlayOrder(population.get(0));
+    }
+
+    // win rate of a play order on the evaluation games, or on another block of games of the same size
+    double winRate(List<Action> playOrder, int block) {
+        int firstGame = block * gamesPerEvaluation;
+        StatsTracker statsTracker = new StatsTracker();
+        for (int i = firstGame; i < firstGame + gamesPerEvaluation; i++) {
+            playGame(playOrder, i, statsTracker);
+        }
+        return (double) statsTracker.getWins(EVOLVED) / gamesPerEvaluation;
+    }
+
+    private double[] evaluate(List<int[]> population, ExecutorService executor) {
+        // play each new genome once, in parallel - cached genomes are looked up afterwards
+        Map<String, Future<Double>> pending = new HashMap<>();
+        for (int[] genome : population) {
+            String key = Arrays.toString(genome);
+            if (fitnessCache.containsKey(key) || pending.containsKey(key)) continue;
+            List<Action> playOrder = toPlayOrder(genome);
+            pending.put(key, executor.submit(() -> winRate(playOrder, 0)));
+        }
+
+        try {
+            for (Map.Entry<String, Future<Double>> entry : pending.entrySet()) {
+                fitnessCache.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating play orders", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Play order evaluation failed", e.getCause());
+        }
+
+        double[] fitness = new double[population.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = fitnessCache.get(Arrays.toString(population.get(i)));
+        }
+        return fitness;
+    }
+
+    // the candidate plays game i against opponents taken in turn from the pool, with seats from the game seed
+    private void playGame(List<Action> playOrder, int gameIndex, StatsTracker statsTracker) {
+        Game.Builder builder = Runner.addDeck(new Game.Builder())
+                .addPlayer(new Player(EVOLVED, new PlayOrderStrategy(playOrder)));
+        for (int i = 0; i < opponentsPerGame; i++) {
+            String opponent = opponents.get((gameIndex + i) % opponents.size());
+            builder.addPlayer(new Player((i + 1) + "-" + opponent, Strategies.byName(opponent).get()));
+        }
+
+        int[] startingDeckSizes = new int[opponentsPerGame + 1];
+        Arrays.fill(startingDeckSizes, startingDeckSize);
+        builder.addLogger(statsTracker)
+                .setSeed(Randoms.seedFor(masterSeed, gameIndex))
+                .start(startingDeckSizes);
+    }
+
+    private static void sortByFitness(List<int[]> population, double[] fitness) {
+        Integer[] order = new Integer[population.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+        List<int[]> sorted = new ArrayList<>();
+        double[] sortedFitness = new double[fitness.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted.add(population.get(order[i]));
+            sortedFitness[i] = fitness[order[i]];
+        }
+        population.clear();
+        population.addAll(sorted);
+        System.arraycopy(sortedFitness, 0, fitness, 0, fitness.length);
+    }
+
+    private static int[] select(List<int[]> population, double[] fitness, SplittableRandom random) {
+        int best = random.nextInt(population.size());
+        for (int i = 1; i < SELECTION_SIZE; i++) {
+            int challenger = random.nextInt(population.size());
+            if (fitness[challenger] > fitness[best]) best = challenger;
+        }
+        return population.get(best);
+    }
+
+    // order crossover - a slice of the first parent stays in place, the rest keep the second parent's order
+    private static int[] crossover(int[] first, int[] second, SplittableRandom random) {
+        int start = random.nextInt(first.length);
+        int end = start + random.nextInt(first.length - start) + 1;
+        int[] child = new int[first.length];
+        boolean[] taken = new boolean[GENES.length];
+        for (int i = start; i < end; i++) {
+            child[i] = first[i];
+            taken[first[i]] = true;
+        }
+
+        int position = 0;
+        for (int gene : second) {
+            if (taken[gene]) continue;
+            if (position == start) position = end;
+            child[position++] = gene;
+        }
+        return child;
+    }
+
+    // move one action to another place in the order - its priority changes, everything else keeps its order
+    private static void mutate(int[] genome, SplittableRandom random) {
+        int from = random.nextInt(genome.length);
+        int to = random.nextInt(genome.length);
+        int gene = genome[from];
+        if (from < to) {
+            System.arraycopy(genome, from + 1, genome, from, to - from);
+        } else {
+            System.arraycopy(genome, to, genome, to + 1, from - to);
+        }
+        genome[to] = gene;
+    }
+
+    private static int[] randomGenome(SplittableRandom random) {
+        int[] genome = new int[GENES.length];
+        for (int i = 0; i < genome.length; i++) {
+            genome[i] = i;
+        }
+        for (int i = genome.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int temp = genome[i - 1];
+            genome[i - 1] = genome[j];
+            genome[j] = temp;
+        }
+        return genome;
+    }
+
+    // actions not in the order go to the end, in gene order
+    private static int[] toGenome(List<Action> playOrder) {
+        int[] genome = new int[GENES.length];
+        boolean[] taken = new boolean[GENES.length];
+        int position = 0;
+        for (Action action : playOrder) {
+            int gene = geneOf(action);
+            if (taken[gene]) continue;
+            taken[gene] = true;
+            genome[position++] = gene;
+        }
+        for (int gene = 0; gene < GENES.length; gene++) {
+            if (!taken[gene]) genome[position++] = gene;
+        }
+        return genome;
+    }
+
+    private static List<Action> toPlayOrder(int[] genome) {
+        List<Action> playOrder = new ArrayList<>(genome.length);
+        for (int gene : genome) {
+            playOrder.add(GENES[gene]);
+        }
+        return playOrder;
+    }
+
+    private static int geneOf(Action action) {
+        for (int gene = 0; gene < GENES.length; gene++) {
+            if (GENES[gene].getType() == action.getType() && GENES[gene].getCard() == action.getCard()) return gene;
+        }
+        throw new IllegalArgumentException("Not a play order action: " + action);
+    }
+
+    // every harvest and play of a non-Artichoke card
+    private static Action[] genes() {
+        List<Action> genes = new ArrayList<>();
+        for (Card card : Card.values()) {
+            if (card == Card.ARTICHOKE) continue;
+            genes.add(new Action(Action.Type.HARVEST, card));
+            genes.add(new Action(Action.Type.PLAY, card));
+        }
+        return genes.toArray(new Action[0]);
+    }
+
+    // the order as a strategy class, in the same layout as the hand-tuned strategies
+    static void printStrategy(String className, List<Action> playOrder, PrintStream out) {
+        out.println("import java.util.ArrayList;");
+        out.println("import java.util.List;");
+        out.println();
+        out.println("class " + className + " extends SimpleStrategy {");
+        out.println();
+        out.println("    private static final List<Action> playOrder = new ArrayList<Action>() {{");
+        for (Action action : playOrder) {
+            out.println("        add(new Action(Action.Type." + action.getType().name() + ", Card."
+                    + action.getCard().name() + "));");
+        }
+        out.println("    }};");
+        out.println();
+        out.println("    @Override");
+        out.println("    List<Action> playOrder(final Game game) {");
+        out.println("        return playOrder;");
+        out.println("    }");
+        out.println("}");
+    }
+
+    // usage: PlayOrderEvolver [generations [population [gamesPerEvaluation [seed [opponent ...]]]]]
+    public static void main(String[] args) {
+        PlayOrderEvolver evolver = new PlayOrderEvolver()
+                .setGenerations(args.length > 0 ? Integer.parseInt(args[0]) : 30)
+                .setPopulationSize(args.length > 1 ? Integer.parseInt(args[1]) : 40)
+                .setGamesPerEvaluation(args.length > 2 ? Integer.parseInt(args[2]) : 2000)
+                .setSeed(args.length > 3 ? Long.parseLong(args[3]) : 0)
+                .addStartingOrder(new BulkNaiveStrategy().playOrder(null))
+                .addStartingOrder(new SlimNaiveStrategy().playOrder(null))
+                .addStartingOrder(new DeckNaiveStrategy().playOrder(null));
+        if (args.length > 4) {
+            for (int i = 4; i < args.length; i++) {
+                evolver.addOpponent(args[i]);
+            }
+        } else {
+            evolver.addOpponent("BulkNaive").addOpponent("SlimNaive").addOpponent("DeckNaive");
+        }
+
+        List<Action> best = evolver.evolve(Runtime.getRuntime().availableProcessors(), System.out);
+
+        // fitness was measured on one fixed block of games - check the winner on games it was not picked on
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "Held-out win rate: %.2f%%", evolver.winRate(best, 1) * 100));
+        System.out.println();
+        printStrategy("EvolvedStrategy", best, System.out);
+    }
+}
@@ -0,0 +1,18 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// SimpleStrategy with its play order given when it is made - for generated orders such as evolved ones
+class PlayOrderStrategy extends SimpleStrategy {
+
+    private final List<Action> playOrder;
+
+    PlayOrderStrategy(final List<Action> playOrder) {
+        this.playOrder = Collections.unmodifiableList(new ArrayList<>(playOrder));
+    }
+
+    @Override
+    List<Action> playOrder(final Game game) {
+        return playOrder;
+    }
+}
@@ -1,64 +1,157 @@
 import java.util.*;
-import java.util.stream.Collectors;
 
-class Player {
+class Player implements UndoLog.Undoable {
 
     private static final int REFILL_HAND_SIZE = 5;
 
-    private LinkedList<Card> hand = new LinkedList<>();
-    private LinkedList<Card> deck = new LinkedList<>();
-    private List<Card> discard = new LinkedList<>();
+    // undo arguments are the value before the change
+    private static final int SET_HARVESTED = 0;
+    private static final int SET_TURN_COUNTER = 1;
+    private static final int SET_KNOWN_ON_TOP = 2;
+
+    private final CardCounts hand = new CardCounts();
+    private final CardDeque deck = new CardDeque();
+    // lazy shuffle keeps the shuffled part of the deck unordered - cards are picked from it at random when drawn,
+    // so a shuffle costs nothing and only the draws pay. The ordered deck above it holds cards put on top
+    private final CardCounts pile = new CardCounts();
+    private final CardCounts discard = new CardCounts();
 
     private final String name;
     private final Strategy strategy;
 
     private boolean hasHarvested = false;
     private int turnCounter = 0;
+    // cards on top of the deck this player put there, so knows - search deals the rest of the deck again
+    private int knownOnTop = 0;
+    private boolean lazyShuffle = false;
+    private SplittableRandom random;
+    private UndoLog undoLog;
+    private Game game;
+    private int seat;
 
     Player(String name, Strategy strategy) {
         this.name = name;
         this.strategy = strategy;
     }
 
-    void initialize(int startingDeckSize) {
+    void initialize(int startingDeckSize, SplittableRandom random) {
+        initialize(startingDeckSize, random, false);
+    }
+
+    void initialize(int startingDeckSize, SplittableRandom random, boolean lazyShuffle) {
+        this.random = random;
+        this.lazyShuffle = lazyShuffle;
+        strategy.initialize(random.split());
+
         // initialize deck
-        while (deck.size() < startingDeckSize) {
-            deck.add(Card.ARTICHOKE);
+        while (getDeckSize() < startingDeckSize) {
+            if (lazyShuffle) {
+                pile.add(Card.ARTICHOKE);
+            } else {
+                deck.addLast(Card.ARTICHOKE);
+            }
         }
 
         // draw starting hand
         drawHand();
     }
 
+    // the game this player is seated in - told whenever the hand or deck and discard go empty or fill again
+    void seat(Game game, int seat) {
+        this.game = game;
+        this.seat = seat;
+        updateSeat();
+    }
+
+    // also called by the game after undo, which reverts the zones directly
+    void updateSeat() {
+        if (game != null) game.updateSeat(seat, !hand.isEmpty(), deckOrDiscardHasCards());
+    }
+
+    int getSeat() {
+        return seat;
+    }
+
+    Strategy getStrategy() {
+        return strategy;
+    }
+
     String getName() {
         return name;
     }
 
-    LinkedList<Card> getHand() {
-        return hand;//TODO Collections.unmodifiableList() - protect against adding nulls to hand
+    List<Card> getHand() {
+        return Collections.unmodifiableList(hand.toList());
+    }
+
+    int getHandSize() {
+        return hand.size();
+    }
+
+    // bit per card ordinal in hand, as in CardCounts.getMask
+    long getHandMask() {
+        return hand.getMask();
+    }
+
+    int countInHand(Card card) {
+        return hand.count(card);
+    }
+
+    int countArtichokesInHand() {
+        return hand.count(Card.ARTICHOKE);
     }
 
+    int countNonArtichokesInHand() {
+        return hand.size() - hand.count(Card.ARTICHOKE);
+    }
+
+    // with lazy shuffle, the unordered part follows the cards on top in card order
     List<Card> getDeck() {
-        return Collections.unmodifiableList(deck);
+        List<Card> cards = deck.toList();
+        cards.addAll(pile.toList());
+        return Collections.unmodifiableList(cards);
+    }
+
+    int getDeckSize() {
+        return deck.size() + pile.size();
+    }
+
+    int getKnownOnTop() {
+        return knownOnTop;
+    }
+
+    boolean isLazyShuffle() {
+        return lazyShuffle;
     }
 
     List<Card> getDiscard() {
-        return Collections.unmodifiableList(discard);
+        return Collections.unmodifiableList(discard.toList());
+    }
+
+    int getDiscardSize() {
+        return discard.size();
     }
 
     //TODO in the future the player information should be restricted like in a real game
     List<Card> getAllCards() {
         List<Card> allCards = new ArrayList<>();
-        allCards.addAll(hand);
-        allCards.addAll(deck);
-        allCards.addAll(discard);
+        allCards.addAll(hand.toList());
+        allCards.addAll(deck.toList());
+        allCards.addAll(pile.toList());
+        allCards.addAll(discard.toList());
         return allCards;
     }
 
+    int countCard(Card card) {
+        return hand.count(card) + deck.count(card) + pile.count(card) + discard.count(card);
+    }
+
+    int getTotalCards() {
+        return hand.size() + getDeckSize() + discard.size();
+    }
+
     float getArtichokeRate() {
-        List<Card> allCards = getAllCards();
-        long numArtichokes = allCards.stream().filter(card -> card == Card.ARTICHOKE).count();
-        return (float) numArtichokes / allCards.size();
+        return (float) countCard(Card.ARTICHOKE) / getTotalCards();
     }
 
     int getNumberOfTurnsTaken() {
@@ -66,80 +159,101 @@ class Player {
     }
 
     boolean hasCardsToPlay(Game game) {
-        return hand.stream().anyMatch(card -> card.canBePlayed(game));
+        // only check each card type in hand once
+        for (long bits = hand.getMask() & ~(1L << Card.ARTICHOKE.ordinal()); bits != 0; bits &= bits - 1) {
+            if (Card.byOrdinal(Long.numberOfTrailingZeros(bits)).canBePlayed(game)) return true;
+        }
+        return false;
     }
 
     boolean canHarvest(Game game) {
         return !hasHarvested && !game.getGarden().isEmpty();
     }
 
-    boolean takeTurn(Game game, Set<Logger> loggers) {
-        turnCounter ++;
+    boolean takeTurn(Game game) {
+        startTurn(game);
+        return finishTurn(game);
+    }
+
+    void startTurn(Game game) {
+        setTurnCounter(turnCounter + 1);
 
         // plant a card if your hand is all Artichokes at start of turn
-        if (hand.stream().allMatch(card -> card == Card.ARTICHOKE)) {
+        if (countNonArtichokesInHand() == 0) {
             Card card = game.drawTop();
-            loggers.forEach(logger -> logger.cardPlanted(card));
+            for (Logger logger : game.loggersFor(Logger.Event.CARD_PLANTED)) {
+                logger.cardPlanted(card);
+            }
             addToDiscard(card);
         }
+        updateSeat();
+    }
 
+    // take the rest of a turn already under way - search plays out hypothetical turns from here
+    boolean finishTurn(Game game) {
         // take actions until none left
         Action action;
         while ((action = strategy.chooseNextAction(game)) != null) {
-            for (Logger logger : loggers) {
+            for (Logger logger : game.loggersFor(Logger.Event.ACTION_CHOSEN)) {
                 logger.actionChosen(action);
             }
+            performAction(game, action);
+        }
+
+        return endTurn(game);
+    }
+
+    void performAction(Game game, Action action) {
+        if (action.getType() == Action.Type.HARVEST && canHarvest(game)) {
+            // remove card from garden and throw if it does not exist
+            if (!game.removeFromGarden(action.getCard())) {
+                throw new IllegalStateException("Card does not exist in Garden: " + action.getCard());
+            }
 
-            if (action.getType() == Action.Type.HARVEST && canHarvest(game)) {
-                // remove card from garden and throw if it does not exist
-                if (!game.getGarden().remove(action.getCard())) {
-                    throw new IllegalStateException("Card does not exist in Garden: " + action.getCard());
-                }
-
-                switch (action.getCard().getHarvestAction()) {
-                    case ADD_TO_DISCARD:
-                        addToDiscard(action.getCard());
-                        break;
-                    case ADD_TO_HAND:
-                    default:
-                        hand.add(action.getCard());
-                        break;
-                }
-                hasHarvested = true;
-
-            } else if (action.getType() == Action.Type.PLAY && action.getCard().canBePlayed(game)) {
-                // remove card from hand and throw if it does not exist
-                if (!hand.remove(action.getCard())) {
-                    throw new IllegalStateException("Card does not exist in Hand: " + action.getCard());
-                }
-
-                discard.add(action.getCard());
-                action.getCard().playCard(game);
+            switch (action.getCard().getHarvestAction()) {
+                case ADD_TO_DISCARD:
+                    addToDiscard(action.getCard());
+                    break;
+                case ADD_TO_HAND:
+                default:
+                    addToHand(action.getCard());
+                    break;
+            }
+            setHarvested(true);
 
-            } else {
-                // throw if invalid action is selected
-                throw new IllegalStateException("Invalid action selected: " + action);
+        } else if (action.getType() == Action.Type.PLAY && action.getCard().canBePlayed(game)) {
+            // remove card from hand and throw if it does not exist
+            if (!hand.remove(action.getCard())) {
+                throw new IllegalStateException("Card does not exist in Hand: " + action.getCard());
             }
+
+            discard.add(action.getCard());
+            action.getCard().playCard(game);
+
+        } else {
+            // throw if invalid action is selected
+            throw new IllegalStateException("Invalid action selected: " + action);
         }
+        updateSeat();
+    }
 
+    // returns true if the player won
+    boolean endTurn(Game game) {
         if (canHarvest(game)) {
             throw new IllegalStateException("Players must harvest on their turn, if possible");
         }
 
-        return turnEnd();
-    }
-
-    private boolean turnEnd() {
         // reset state
-        hasHarvested = false;
+        setHarvested(false);
 
         // redraw hand
         discard.addAll(hand);
         hand.clear();
         drawHand();
+        updateSeat();
 
         // check if player wins
-        return hand.stream().noneMatch(card -> card == Card.ARTICHOKE);
+        return !hand.contains(Card.ARTICHOKE);
     }
 
     private void drawHand() {
@@ -155,15 +269,45 @@ class Player {
         if (!deckOrDiscardHasCards()) return null;
 
         // if deck empty, shuffle in discard
-        if (deck.isEmpty()) shuffleDeckAndDiscard();
-
-        return deck.removeFirst();
+        if (!deckHasCards()) shuffleDeckAndDiscard();
+
+        Card card;
+        if (!deck.isEmpty()) {
+            card = deck.removeFirst();
+            if (knownOnTop > 0) setKnownOnTop(knownOnTop - 1);
+        } else {
+            // a uniform pick from the unordered pile is the top card of a uniformly shuffled one
+            card = pile.get(random.nextInt(pile.size()));
+            pile.remove(card);
+        }
+        updateSeat();
+        return card;
     }
 
     void shuffleDeckAndDiscard() {
+        setKnownOnTop(0);
+        if (lazyShuffle) {
+            pile.addAll(discard);
+            discard.clear();
+            shuffleDeck(random);
+            return;
+        }
         deck.addAll(discard);
         discard.clear();
-        Collections.shuffle(deck);
+        deck.shuffle(random);
+    }
+
+    void shuffleDeck(SplittableRandom random) {
+        setKnownOnTop(0);
+        if (!lazyShuffle) {
+            deck.shuffle(random);
+            return;
+        }
+
+        // cards on top lose their place - the random source only matters once cards are drawn
+        for (Card card; (card = deck.removeFirst()) != null; ) {
+            pile.add(card);
+        }
     }
 
     void pickCardForTopOfDeck() {
@@ -171,7 +315,7 @@ class Player {
 
         Card card = null;
         if (hand.size() == 1) card = hand.get(0);
-        if (card == null) card = strategy.pickCardForTopOfDeck(hand);
+        if (card == null) card = strategy.pickCardForTopOfDeck(getHand());
 
         if (card == null) throw new IllegalStateException("Null card to put on top");
         if (!hand.remove(card)) throw new IllegalStateException("Card to put on top not in hand: " + card.name());
@@ -181,6 +325,40 @@ class Player {
 
     void addToTopOfDeck(Card card) {
         deck.addFirst(card);
+        setKnownOnTop(knownOnTop + 1);
+        updateSeat();
+    }
+
+    // moves the hand, if given, and the deck below the cards given to keep on top into the pool - the
+    // shuffled part of a lazy deck goes first, as it lies below any cards put on top
+    void takeUnseen(List<Card> pool, boolean withHand, int keepOnTop) {
+        if (withHand) {
+            pool.addAll(hand.toList());
+            hand.clear();
+        }
+        pool.addAll(pile.toList());
+        pile.clear();
+        while (deck.size() > keepOnTop) {
+            pool.add(deck.removeLast());
+        }
+    }
+
+    // refills hand and deck bottom from the cards at from, as takeUnseen emptied them - returns where the
+    // next player's cards start
+    int dealUnseen(List<Card> cards, int from, int handCards, int deckCards) {
+        int next = from;
+        for (int i = 0; i < handCards; i++) {
+            hand.add(cards.get(next++));
+        }
+        for (int i = 0; i < deckCards; i++) {
+            if (lazyShuffle) {
+                pile.add(cards.get(next++));
+            } else {
+                deck.addLast(cards.get(next++));
+            }
+        }
+        updateSeat();
+        return next;
     }
 
     Player chooseOpponent(List<Player> players) {
@@ -194,7 +372,7 @@ class Player {
     }
 
     void discardNonArtichoke() {
-        List<Card> cards = hand.stream().filter(card -> card != Card.ARTICHOKE).collect(Collectors.toList());
+        List<Card> cards = getNonArtichokesInHand();
 
         if (cards.isEmpty()) throw new IllegalStateException("No valid card to discard");
 
@@ -207,21 +385,28 @@ class Player {
         if (!hand.remove(card)) throw new IllegalStateException("Card to discard not in hand: " + card.name());
 
         addToDiscard(card);
+        updateSeat();
     }
 
     Card giveCardToOpponent() {
         if (hand.isEmpty()) throw new IllegalStateException("Hand is empty");
-        if (hand.size() == 1) return hand.removeFirst();
+        if (hand.size() == 1) {
+            Card card = hand.get(0);
+            hand.remove(card);
+            updateSeat();
+            return card;
+        }
 
-        Card card = strategy.pickCardToGiveOpponent(Collections.unmodifiableList(hand));
+        Card card = strategy.pickCardToGiveOpponent(getHand());
         if (card == null) throw new IllegalStateException("Null card to give to opponent");
         if (!hand.remove(card)) throw new IllegalStateException("Card to give to opponent not in hand: " + card.name());
 
+        updateSeat();
         return card;
     }
 
     Card giveNonArtichokeToOpponent() {
-        List<Card> cards = hand.stream().filter(card -> card != Card.ARTICHOKE).collect(Collectors.toList());
+        List<Card> cards = getNonArtichokesInHand();
 
         if (cards.isEmpty()) throw new IllegalStateException("No valid card to give to opponent");
 
@@ -233,19 +418,105 @@ class Player {
         if (card == Card.ARTICHOKE) throw new IllegalStateException("Cannot select Artichoke as non-Artichoke");
         if (!hand.remove(card)) throw new IllegalStateException("Card to give opponent not in hand: " + card.name());
 
+        updateSeat();
+        return card;
+    }
+
+    private List<Card> getNonArtichokesInHand() {
+        List<Card> cards = hand.toList();
+        cards.removeIf(card -> card == Card.ARTICHOKE);
+        return cards;
+    }
+
+    void addToHand(Card card) {
+        if (card == null) throw new IllegalStateException("Null card added to hand");
+        hand.add(card);
+        updateSeat();
+    }
+
+    boolean removeFromHand(Card card) {
+        boolean removed = hand.remove(card);
+        updateSeat();
+        return removed;
+    }
+
+    Card removeRandomFromHand(SplittableRandom random) {
+        if (hand.isEmpty()) throw new IllegalStateException("Hand is empty");
+        Card card = hand.get(random.nextInt(hand.size()));
+        hand.remove(card);
+        updateSeat();
         return card;
     }
 
     boolean deckHasCards() {
-        return !deck.isEmpty();
+        return !deck.isEmpty() || !pile.isEmpty();
     }
 
     boolean deckOrDiscardHasCards() {
-        return !deck.isEmpty() || !discard.isEmpty();
+        return deckHasCards() || !discard.isEmpty();
     }
 
     void addToDiscard(Card card) {
-        if (card != null) discard.add(card);
+        if (card == null) return;
+        discard.add(card);
+        updateSeat();
+    }
+
+    // hand, deck and discard log their own changes - the player only logs its turn state
+    void setUndoLog(UndoLog undoLog) {
+        this.undoLog = undoLog;
+        hand.setUndoLog(undoLog);
+        deck.setUndoLog(undoLog);
+        pile.setUndoLog(undoLog);
+        discard.setUndoLog(undoLog);
+    }
+
+    private void setHarvested(boolean harvested) {
+        if (undoLog != null) undoLog.record(this, SET_HARVESTED, hasHarvested ? 1 : 0);
+        hasHarvested = harvested;
+    }
+
+    private void setTurnCounter(int turns) {
+        if (undoLog != null) undoLog.record(this, SET_TURN_COUNTER, turnCounter);
+        turnCounter = turns;
+    }
+
+    private void setKnownOnTop(int cards) {
+        if (cards == knownOnTop) return;
+        if (undoLog != null) undoLog.record(this, SET_KNOWN_ON_TOP, knownOnTop);
+        knownOnTop = cards;
+    }
+
+    @Override
+    public void revert(int operation, int argument) {
+        if (operation == SET_HARVESTED) {
+            hasHarvested = argument != 0;
+        } else if (operation == SET_KNOWN_ON_TOP) {
+            knownOnTop = argument;
+        } else {
+            turnCounter = argument;
+        }
+    }
+
+    void save(GameSnapshot snapshot) {
+        snapshot.putInt(turnCounter);
+        snapshot.putInt(hasHarvested ? 1 : 0);
+        snapshot.putInt(knownOnTop);
+        hand.save(snapshot);
+        deck.save(snapshot);
+        if (lazyShuffle) pile.save(snapshot);
+        discard.save(snapshot);
+    }
+
+    void restore(GameSnapshot snapshot) {
+        turnCounter = snapshot.getInt();
+        hasHarvested = snapshot.getInt() != 0;
+        knownOnTop = snapshot.getInt();
+        hand.restore(snapshot);
+        deck.restore(snapshot);
+        if (lazyShuffle) pile.restore(snapshot);
+        discard.restore(snapshot);
+        updateSeat();
     }
 
     @SuppressWarnings("SameParameterValue")
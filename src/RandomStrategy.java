@@ -1,28 +1,36 @@
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.SplittableRandom;
 
 public class RandomStrategy implements Strategy {
 
+    private SplittableRandom random = new SplittableRandom();
+
+    @Override
+    public void initialize(final SplittableRandom random) {
+        this.random = random;
+    }
+
     @Override
     public Action chooseNextAction(final Game game) {
         // harvest a card, if possible
         if (game.getCurrentPlayer().canHarvest(game)) {
-            List<Card> garden = new ArrayList<>(game.getGarden());
-            Collections.shuffle(garden);
-            return new Action(Action.Type.HARVEST, garden.get(0));
+            List<Card> garden = game.getGarden();
+            return new Action(Action.Type.HARVEST, garden.get(random.nextInt(garden.size())));
         }
 
-        // choose random card to play, if any are available
-        if (game.getCurrentPlayer().hasCardsToPlay(game)) {
-            List<Card> hand = new ArrayList<>(game.getCurrentPlayer().getHand());
-            Collections.shuffle(hand);
-            Optional<Card> optionalCard = hand.stream().filter(card -> card.canBePlayed(game)).findFirst();
-            if (optionalCard.isPresent()) {
-                return new Action(Action.Type.PLAY, optionalCard.get());
-            }
+        // choose random card to play, if any are available - each card in hand is equally likely
+        Card choice = null;
+        int seen = 0;
+        for (int i = 0; i < Card.count(); i++) {
+            Card card = Card.byOrdinal(i);
+            int count = game.getCurrentPlayer().countInHand(card);
+            if (count == 0 || !card.canBePlayed(game)) continue;
+
+            // weighted reservoir sampling over card types
+            seen += count;
+            if (random.nextInt(seen) < count) choice = card;
         }
+        if (choice != null) return new Action(Action.Type.PLAY, choice);
 
         // return null if there are no valid actions
         return null;
@@ -30,47 +38,49 @@ public class RandomStrategy implements Strategy {
 
     @Override
     public Card pickCardForTopOfDeck(final List<Card> cards) {
-        if (cards.isEmpty()) return null;
-        if (cards.stream().anyMatch(card -> card == Card.ARTICHOKE)) return Card.ARTICHOKE;
-
-        List<Card> hand = new ArrayList<>(cards);
-        Collections.shuffle(hand);
-        return hand.get(0);
+        return pickArtichokeOrRandom(cards);
     }
 
     @Override
     public Player chooseOpponent(final List<Player> players) {
-        List<Player> opponentList = new ArrayList<>(players);
-        Collections.shuffle(opponentList);
-        return opponentList.get(0);
+        return players.get(random.nextInt(players.size()));
     }
 
     @Override
     public Card pickNonArtichokeToDiscard(final List<Card> cards) {
-        List<Card> hand = new ArrayList<>(cards);
-        Collections.shuffle(hand);
-        return hand.stream().filter(card -> card != Card.ARTICHOKE).findFirst().orElse(null);
+        return pickRandomNonArtichoke(cards);
     }
 
     @Override
     public Card pickCardToGiveOpponent(List<Card> cards) {
-        if (cards.isEmpty()) return null;
-        if (cards.stream().anyMatch(card -> card == Card.ARTICHOKE)) return Card.ARTICHOKE;
-
-        List<Card> hand = new ArrayList<>(cards);
-        Collections.shuffle(hand);
-        return hand.get(0);
+        return pickArtichokeOrRandom(cards);
     }
 
     @Override
     public Card pickNonArtichokeToGiveOpponent(List<Card> cards) {
-        List<Card> hand = new ArrayList<>(cards);
-        Collections.shuffle(hand);
-        return hand.stream().filter(card -> card != Card.ARTICHOKE).findFirst().orElse(null);
+        return pickRandomNonArtichoke(cards);
     }
 
     @Override
     public boolean doesWantCard(final Card card) {
         return card != Card.ARTICHOKE;
     }
+
+    private Card pickArtichokeOrRandom(final List<Card> cards) {
+        if (cards.isEmpty()) return null;
+        if (cards.contains(Card.ARTICHOKE)) return Card.ARTICHOKE;
+        return cards.get(random.nextInt(cards.size()));
+    }
+
+    private Card pickRandomNonArtichoke(final List<Card> cards) {
+        // reservoir sampling - each non-Artichoke is equally likely
+        Card choice = null;
+        int seen = 0;
+        for (Card card : cards) {
+            if (card == Card.ARTICHOKE) continue;
+            seen ++;
+            if (random.nextInt(seen) == 0) choice = card;
+        }
+        return choice;
+    }
 }
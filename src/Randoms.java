@@ -0,0 +1,47 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+final class Randoms {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private Randoms() {
+    }
+
+    // derive an independent seed for one game of a batch, so any game can be replayed on its own
+    static long seedFor(final long masterSeed, final long gameIndex) {
+        long z = masterSeed + (gameIndex + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // same algorithm as Collections.shuffle, driven by the game's random source
+    @SuppressWarnings("unchecked")
+    static <T> void shuffle(final List<T> list, final SplittableRandom random) {
+        int size = list.size();
+        if (list instanceof RandomAccess) {
+            for (int i = size; i > 1; i--) {
+                Collections.swap(list, i - 1, random.nextInt(i));
+            }
+            return;
+        }
+
+        Object[] array = list.toArray();
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            Object temp = array[i - 1];
+            array[i - 1] = array[j];
+            array[j] = temp;
+        }
+
+        ListIterator<T> iterator = list.listIterator();
+        for (Object element : array) {
+            iterator.next();
+            iterator.set((T) element);
+        }
+    }
+}
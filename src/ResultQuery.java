@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// group-by and filter scans over the columns written by ResultStore - only the columns a query touches are read
+class ResultQuery {
+
+    private static final String[] OPERATORS = {"<=", ">=", "!=", "=", "<", ">"};
+
+    // rows filtered and grouped together, so the per-row scratch arrays stay in cache between columns
+    private static final int BLOCK_ROWS = 4096;
+
+    private final Path directory;
+    private final int rows;
+    private final List<String> columns;
+    private final int[] widths;
+    private final List<String> strategies = new ArrayList<>();
+    private final List<Key> groupBy = new ArrayList<>();
+    private final List<Filter> filters = new ArrayList<>();
+
+    ResultQuery(Path directory) throws IOException {
+        this.directory = directory;
+        int rows = -1;
+        int seats = -1;
+        for (String line : Files.readAllLines(directory.resolve(ResultStore.META_FILE), StandardCharsets.UTF_8)) {
+            String[] parts = line.split(" ", 3);
+            if (parts[0].equals("rows")) rows = Integer.parseInt(parts[1]);
+            if (parts[0].equals("seats")) seats = Integer.parseInt(parts[1]);
+            if (parts[0].equals("strategy")) {
+                int id = Integer.parseInt(parts[1]);
+                while (strategies.size() <= id) strategies.add(null);
+                strategies.set(id, parts[2]);
+            }
+        }
+        if (rows < 0 || seats < 0) throw new IllegalStateException("Incomplete result store: " + directory);
+        this.rows = rows;
+        this.columns = ResultStore.columns(seats);
+        this.widths = new int[columns.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = ResultStore.width(columns.get(i));
+        }
+    }
+
+    // column, or column/size to group values into buckets of that size
+    ResultQuery groupBy(String key) {
+        String[] parts = key.split("/");
+        groupBy.add(new Key(column(parts[0]), parts.length > 1 ? Integer.parseInt(parts[1]) : 1));
+        return this;
+    }
+
+    // column, operator and value, e.g. garden>20 - strategies can be given by name, and none matches no winner
+    ResultQuery filter(String condition) {
+        for (String operator : OPERATORS) {
+            int at = condition.indexOf(operator);
+            if (at < 0) continue;
+            int column = column(condition.substring(0, at));
+            filters.add(new Filter(column, operator, value(column, condition.substring(at + operator.length()))));
+            return this;
+        }
+        throw new IllegalArgumentException("No operator in filter: " + condition);
+    }
+
+    private int column(String name) {
+        int column = columns.indexOf(name);
+        if (column < 0) throw new IllegalArgumentException("Unknown column: " + name + ", columns are " + columns);
+        if (widths[column] == Long.BYTES) throw new IllegalArgumentException("Seeds can't be filtered or grouped");
+        return column;
+    }
+
+    private int value(int column, String text) {
+        if (text.equals("none")) return ResultStore.NONE;
+        if (columns.get(column).equals("winnerStrategy") && strategies.contains(text)) return strategies.indexOf(text);
+        return Integer.parseInt(text);
+    }
+
+    Result run() throws IOException {
+        int turns = column("turns");
+        int garden = column("garden");
+        boolean[] used = new boolean[columns.size()];
+        used[turns] = true;
+        used[garden] = true;
+        for (Key key : groupBy) {
+            used[key.column] = true;
+        }
+        for (Filter filter : filters) {
+            used[filter.column] = true;
+        }
+
+        // a first pass finds each key's range, so groups can be counted in a flat array
+        int[] low = new int[groupBy.size()];
+        int[] high = new int[groupBy.size()];
+        Arrays.fill(low, Integer.MAX_VALUE);
+        Arrays.fill(high, Integer.MIN_VALUE);
+        int[] keys = new int[BLOCK_ROWS];
+        scan(used, (values, count) -> {
+            for (int from = 0; from < count; from += BLOCK_ROWS) {
+                int blockRows = Math.min(BLOCK_ROWS, count - from);
+                for (int k = 0; k < groupBy.size(); k++) {
+                    groupBy.get(k).bucket(values, from, blockRows, keys);
+                    for (int row = 0; row < blockRows; row++) {
+                        low[k] = Math.min(low[k], keys[row]);
+                        high[k] = Math.max(high[k], keys[row]);
+                    }
+                }
+            }
+        });
+
+        long groups = 1;
+        for (int k = 0; k < groupBy.size(); k++) {
+            groups *= Math.max(1, high[k] - low[k] + 1);
+        }
+        if (groups > 1 << 24) throw new IllegalStateException("Too many groups - use wider buckets: " + groups);
+
+        // then a block of rows at a time, column by column - filters clear rows, keys build up group numbers,
+        // and kept rows are counted
+        Result result = new Result(low, high, (int) groups);
+        int[] groupOf = new int[BLOCK_ROWS];
+        boolean[] kept = new boolean[BLOCK_ROWS];
+        long start = System.nanoTime();
+        result.bytes = scan(used, (values, count) -> {
+            for (int from = 0; from < count; from += BLOCK_ROWS) {
+                aggregate(values, from, Math.min(BLOCK_ROWS, count - from), values[turns], values[garden], result,
+                        kept, keys, groupOf);
+            }
+        });
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void aggregate(int[][] values, int from, int count, int[] turns, int[] garden, Result result,
+                           boolean[] kept, int[] keys, int[] groupOf) {
+        Arrays.fill(kept, 0, count, true);
+        for (Filter filter : filters) {
+            filter.apply(values[filter.column], from, count, kept);
+        }
+
+        Arrays.fill(groupOf, 0, count, 0);
+        for (int k = 0; k < groupBy.size(); k++) {
+            groupBy.get(k).bucket(values, from, count, keys);
+            int range = result.high[k] - result.low[k] + 1;
+            int offset = result.low[k];
+            for (int row = 0; row < count; row++) {
+                groupOf[row] = groupOf[row] * range + keys[row] - offset;
+            }
+        }
+
+        // dropped rows go to the spare group past the end rather than behind a branch
+        int dropped = result.groups;
+        long[] sums = result.sums;
+        for (int row = 0; row < count; row++) {
+            int slot = (kept[row] ? groupOf[row] : dropped) * Result.FIELDS;
+            sums[slot] ++;
+            sums[slot + 1] += turns[from + row];
+            sums[slot + 2] += garden[from + row];
+        }
+    }
+
+    // maps one segment of the used columns at a time and copies it into int arrays for the visitor - returns
+    // the bytes read
+    private long scan(boolean[] used, SegmentVisitor visitor) throws IOException {
+        int segmentSize = Math.min(rows, ResultStore.ROWS_PER_SEGMENT);
+        FileChannel[] channels = new FileChannel[columns.size()];
+        int[][] values = new int[columns.size()][];
+        byte[] bytes = new byte[segmentSize];
+        short[] shorts = new short[segmentSize];
+        long read = 0;
+        try {
+            for (int i = 0; i < channels.length; i++) {
+                if (!used[i]) continue;
+                channels[i] = FileChannel.open(ResultStore.columnFile(directory, columns.get(i)), StandardOpenOption.READ);
+                values[i] = new int[segmentSize];
+            }
+
+            for (int first = 0; first < rows; first += segmentSize) {
+                int count = Math.min(segmentSize, rows - first);
+                for (int i = 0; i < channels.length; i++) {
+                    if (channels[i] == null) continue;
+                    ByteBuffer buffer = channels[i].map(FileChannel.MapMode.READ_ONLY, (long) first * widths[i],
+                            (long) count * widths[i]).order(ResultStore.BYTE_ORDER);
+                    int[] column = values[i];
+                    if (widths[i] == Byte.BYTES) {
+                        buffer.get(bytes, 0, count);
+                        for (int row = 0; row < count; row++) {
+                            column[row] = bytes[row];
+                        }
+                    } else {
+                        buffer.asShortBuffer().get(shorts, 0, count);
+                        for (int row = 0; row < count; row++) {
+                            column[row] = shorts[row];
+                        }
+                    }
+                    read += (long) count * widths[i];
+                }
+                visitor.visit(values, count);
+            }
+        } finally {
+            for (FileChannel channel : channels) {
+                if (channel != null) channel.close();
+            }
+        }
+        return read;
+    }
+
+    // usage: ResultQuery <directory> [groupBy[,groupBy ...] [filter ...]] - groupBy is a column or column/bucketSize,
+    // a filter is a column, one of = != < > <= >= and a value, e.g. ResultQuery results winnerSeat,garden/5 players=3
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) throw new IllegalArgumentException("Usage: ResultQuery <directory> [groupBy [filter ...]]");
+        ResultQuery query = new ResultQuery(Paths.get(args[0]));
+        if (args.length > 1 && !args[1].isEmpty()) {
+            for (String key : args[1].split(",")) {
+                query.groupBy(key);
+            }
+        }
+        for (int i = 2; i < args.length; i++) {
+            query.filter(args[i]);
+        }
+        query.run().print(System.out);
+    }
+
+    private interface SegmentVisitor {
+
+        void visit(int[][] values, int count);
+    }
+
+    private class Key {
+
+        private final int column;
+        private final int bucketSize;
+
+        // bucket of every short value, offset by Short.MIN_VALUE - a lookup is cheaper than dividing each row
+        private final int[] buckets;
+
+        private Key(int column, int bucketSize) {
+            if (bucketSize < 1) throw new IllegalArgumentException("Bucket size must be positive: " + bucketSize);
+            this.column = column;
+            this.bucketSize = bucketSize;
+            if (bucketSize == 1) {
+                buckets = null;
+            } else {
+                buckets = new int[1 << Short.SIZE];
+                for (int i = 0; i < buckets.length; i++) {
+                    buckets[i] = Math.floorDiv(i + Short.MIN_VALUE, bucketSize);
+                }
+            }
+        }
+
+        private void bucket(int[][] values, int from, int count, int[] keys) {
+            int[] column = values[this.column];
+            if (buckets == null) {
+                System.arraycopy(column, from, keys, 0, count);
+                return;
+            }
+            for (int row = 0; row < count; row++) {
+                keys[row] = buckets[column[from + row] - Short.MIN_VALUE];
+            }
+        }
+
+        private String label(int value) {
+            // every stored value but NONE is non-negative, in any bucket size
+            if (value < 0) return "none";
+            if (columns.get(column).equals("winnerStrategy")) return strategies.get(value);
+            if (bucketSize == 1) return Integer.toString(value);
+            return value * bucketSize + "-" + (value * bucketSize + bucketSize - 1);
+        }
+    }
+
+    private static class Filter {
+
+        private final int column;
+        private final String operator;
+        private final int value;
+
+        private Filter(int column, String operator, int value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        // clears the rows that fail, one operator per loop
+        private void apply(int[] column, int from, int count, boolean[] kept) {
+            switch (operator) {
+                case "=":
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] == value;
+                    }
+                    break;
+                case "!=":
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] != value;
+                    }
+                    break;
+                case "<":
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] < value;
+                    }
+                    break;
+                case ">":
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] > value;
+                    }
+                    break;
+                case "<=":
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] <= value;
+                    }
+                    break;
+                case ">=":
+                default:
+                    for (int row = 0; row < count; row++) {
+                        kept[row] &= column[from + row] >= value;
+                    }
+                    break;
+            }
+        }
+    }
+
+    // games per group with their mean length and remaining garden - shares are of the games the filters kept
+    class Result {
+
+        // games, turns and garden side by side per group, plus one spare group for the rows filters dropped
+        private static final int FIELDS = 3;
+
+        private final int[] low;
+        private final int[] high;
+        private final int groups;
+        private final long[] sums;
+        private long nanos;
+        private long bytes;
+
+        private Result(int[] low, int[] high, int groups) {
+            this.low = low;
+            this.high = high;
+            this.groups = groups;
+            this.sums = new long[(groups + 1) * FIELDS];
+        }
+
+        long getGames() {
+            long total = 0;
+            for (int group = 0; group < groups; group++) {
+                total += sums[group * FIELDS];
+            }
+            return total;
+        }
+
+        void print(PrintStream out) {
+            long total = getGames();
+            out.println(String.format(Locale.ROOT, "Games: %d of %d, scanned %.1f MB in %.1f ms (%.2f GB/s)",
+                    total, rows, bytes / 1e6, nanos / 1e6, nanos == 0 ? 0 : bytes / (double) nanos));
+            if (total == 0) return;
+
+            StringBuilder header = new StringBuilder();
+            for (Key key : groupBy) {
+                header.append(String.format("%-16s", columns.get(key.column)));
+            }
+            out.println(header.append(String.format("%12s %8s %8s %8s", "games", "share", "turns", "garden")));
+
+            int[] values = new int[groupBy.size()];
+            for (int group = 0; group < groups; group++) {
+                long games = sums[group * FIELDS];
+                if (games == 0) continue;
+
+                // unpack the group index into key values, last key varying fastest
+                int rest = group;
+                for (int k = groupBy.size() - 1; k >= 0; k--) {
+                    int range = high[k] - low[k] + 1;
+                    values[k] = low[k] + rest % range;
+                    rest /= range;
+                }
+
+                StringBuilder row = new StringBuilder();
+                for (int k = 0; k < groupBy.size(); k++) {
+                    row.append(String.format("%-16s", groupBy.get(k).label(values[k])));
+                }
+                row.append(String.format(Locale.ROOT, "%12d %7.2f%% %8.2f %8.2f", games, games * 100.0 / total,
+                        sums[group * FIELDS + 1] / (double) games, sums[group * FIELDS + 2] / (double) games));
+                out.println(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// one fixed-width row per finished game, stored column by column in memory-mapped files <column>.col
+// every game claims the next row, so worker threads write to separate slots - query them with ResultQuery.
+// The rows so far are readable once the store is synced or closed, and a checkpointed run syncs it at every
+// checkpoint and resumes it from there
+class ResultStore implements Logger, AutoCloseable {
+
+    static final int ROWS_PER_SEGMENT = 1 << 20;
+    static final int DEFAULT_SEATS = 6;
+    static final String META_FILE = "results.txt";
+
+    // little-endian, so reading a column back on the usual hardware is a plain copy
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // artichoke rates are stored in tenths of a percent, and absent seats or missing winners as -1
+    static final int RATE_SCALE = 1000;
+    static final int NONE = -1;
+
+    private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.of(Event.GAME_OVER, Event.GAME_STALLED));
+
+    private final Path directory;
+    private final int seats;
+    private final List<String> columns;
+    private final int[] widths;
+    private final FileChannel[] channels;
+    private final AtomicInteger nextRow = new AtomicInteger(0);
+    private final Map<String, Integer> strategyIds = new LinkedHashMap<>();
+
+    // mapped segments of every column, replaced whole when one is added
+    private volatile MappedByteBuffer[][] segments = new MappedByteBuffer[0][];
+
+    ResultStore(Path directory) {
+        this(directory, DEFAULT_SEATS);
+    }
+
+    ResultStore(Path directory, int seats) {
+        this(directory, seats, true);
+    }
+
+    private ResultStore(Path directory, int seats, boolean truncate) {
+        this.directory = directory;
+        this.seats = seats;
+        this.columns = columns(seats);
+        this.widths = new int[columns.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = width(columns.get(i));
+        }
+
+        channels = new FileChannel[columns.size()];
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i < channels.length; i++) {
+                Path file = columnFile(directory, columns.get(i));
+                channels[i] = truncate
+                        ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.READ, StandardOpenOption.WRITE)
+                        : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create result store: " + directory, e);
+        }
+    }
+
+    // reopens the store a checkpoint saved with rows written - later rows are written over again, and strategy
+    // ids carry on from the saved ones
+    static ResultStore resume(Path directory, int rows) {
+        if (rows == 0) return new ResultStore(directory);
+
+        List<String> meta;
+        try {
+            meta = Files.readAllLines(directory.resolve(META_FILE), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read result store: " + directory, e);
+        }
+        int seats = -1;
+        for (String line : meta) {
+            String[] parts = line.split(" ", 2);
+            if (parts[0].equals("seats")) seats = Integer.parseInt(parts[1]);
+        }
+        if (seats < 0) throw new IllegalStateException("Incomplete result store: " + directory);
+
+        ResultStore store = new ResultStore(directory, seats, false);
+        for (String line : meta) {
+            String[] parts = line.split(" ", 3);
+            if (!parts[0].equals("strategy")) continue;
+            if (Integer.parseInt(parts[1]) != store.strategyIds.size()) {
+                throw new IllegalStateException("Strategy ids out of order in result store: " + directory);
+            }
+            store.strategyIds.put(parts[2], store.strategyIds.size());
+        }
+        try {
+            for (int i = 0; i < store.channels.length; i++) {
+                if (store.channels[i].size() < (long) rows * store.widths[i]) {
+                    throw new IllegalStateException("Result store " + directory + " has fewer than " + rows + " rows");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read result store: " + directory, e);
+        }
+        store.nextRow.set(rows);
+
+        // rows past the checkpoint may be half a batch from the stopped run - don't count them
+        store.writeMeta(rows);
+        return store;
+    }
+
+    // column names in file order - per seat rates follow the game-wide columns
+    static List<String> columns(int seats) {
+        List<String> columns = new ArrayList<>(Arrays.asList("seed", "players", "winnerSeat", "winnerStrategy",
+                "turns", "garden"));
+        for (int seat = 0; seat < seats; seat++) {
+            columns.add("rate" + seat);
+        }
+        return columns;
+    }
+
+    static int width(String column) {
+        switch (column) {
+            case "seed":
+                return Long.BYTES;
+            case "players":
+            case "winnerSeat":
+            case "winnerStrategy":
+                return Byte.BYTES;
+            default:
+                return Short.BYTES;
+        }
+    }
+
+    static Path columnFile(Path directory, String column) {
+        return directory.resolve(column + ".col");
+    }
+
+    @Override
+    public Set<Event> getEvents() {
+        return EVENTS;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        // no-op
+    }
+
+    @Override
+    public void gardenRefreshed(List<Card> garden) {
+        // no-op
+    }
+
+    @Override
+    public void startTurn(Player player) {
+        // no-op
+    }
+
+    @Override
+    public void cardPlanted(Card card) {
+        // no-op
+    }
+
+    @Override
+    public void actionChosen(Action action) {
+        // no-op
+    }
+
+    @Override
+    public void endTurn(Player player) {
+        // no-op
+    }
+
+    @Override
+    public void gameOver(Game game) {
+        Player winner = game.getCurrentPlayer();
+        // keyed by player name, as StatsTracker counts wins - one strategy class covers many play orders and
+        // search budgets, so the name a player is entered under is what tells them apart
+        write(game, winner.getSeat(), strategyId(winner.getName()));
+    }
+
+    @Override
+    public void gameStalled(Game game) {
+        write(game, NONE, NONE);
+    }
+
+    // seats are in turn order, so seat 0 took the first turn. A game's length is the turns its last player took
+    private void write(Game game, int winnerSeat, int winnerStrategy) {
+        List<Player> players = game.getOpponents();
+        int numberOfPlayers = players.size() + 1;
+        if (numberOfPlayers > seats) {
+            throw new IllegalStateException("Result store has " + seats + " seats, game has " + numberOfPlayers);
+        }
+
+        int row = nextRow.getAndIncrement();
+        if (row < 0) throw new IllegalStateException("Result store is full");
+        MappedByteBuffer[] columns = segment(row / ROWS_PER_SEGMENT);
+        int index = row % ROWS_PER_SEGMENT;
+
+        columns[0].putLong(index * Long.BYTES, game.getSeed());
+        columns[1].put(index, (byte) numberOfPlayers);
+        columns[2].put(index, (byte) winnerSeat);
+        columns[3].put(index, (byte) winnerStrategy);
+        columns[4].putShort(index * Short.BYTES, (short) game.getCurrentPlayer().getNumberOfTurnsTaken());
+        columns[5].putShort(index * Short.BYTES, (short) game.getRemainingGardenSize());
+
+        columns[6 + game.getCurrentPlayer().getSeat()].putShort(index * Short.BYTES, rate(game.getCurrentPlayer()));
+        for (Player player : players) {
+            columns[6 + player.getSeat()].putShort(index * Short.BYTES, rate(player));
+        }
+        for (int seat = numberOfPlayers; seat < seats; seat++) {
+            columns[6 + seat].putShort(index * Short.BYTES, (short) NONE);
+        }
+    }
+
+    private static short rate(Player player) {
+        return (short) Math.round(player.getArtichokeRate() * RATE_SCALE);
+    }
+
+    private synchronized int strategyId(String name) {
+        Integer id = strategyIds.get(name);
+        if (id != null) return id;
+        if (strategyIds.size() > Byte.MAX_VALUE) throw new IllegalStateException("Too many strategies: " + name);
+        strategyIds.put(name, strategyIds.size());
+        return strategyIds.size() - 1;
+    }
+
+    private MappedByteBuffer[] segment(int segment) {
+        MappedByteBuffer[][] mapped = segments;
+        if (segment < mapped.length) return mapped[segment];
+        return mapSegment(segment);
+    }
+
+    private synchronized MappedByteBuffer[] mapSegment(int segment) {
+        MappedByteBuffer[][] mapped = segments;
+        if (segment < mapped.length) return mapped[segment];
+
+        mapped = Arrays.copyOf(mapped, segment + 1);
+        try {
+            for (int s = segments.length; s <= segment; s++) {
+                mapped[s] = new MappedByteBuffer[channels.length];
+                for (int i = 0; i < channels.length; i++) {
+                    long size = (long) ROWS_PER_SEGMENT * widths[i];
+                    mapped[s][i] = channels[i].map(FileChannel.MapMode.READ_WRITE, s * size, size);
+                    mapped[s][i].order(BYTE_ORDER);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map result segment " + segment, e);
+        }
+        segments = mapped;
+        return mapped[segment];
+    }
+
+    int getRows() {
+        return nextRow.get();
+    }
+
+    // makes the rows so far durable and readable - call while no game is being written, e.g. between batches.
+    // Returns the row count
+    synchronized int sync() {
+        int rows = nextRow.get();
+        force();
+        writeMeta(rows);
+        return rows;
+    }
+
+    // call once all games are finished - trims the columns to the rows written and saves the row count,
+    // seat count and strategy names
+    @Override
+    public synchronized void close() {
+        int rows = nextRow.get();
+        force();
+        try {
+            for (int i = 0; i < channels.length; i++) {
+                channels[i].truncate((long) rows * widths[i]);
+                channels[i].close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close result store: " + directory, e);
+        }
+        writeMeta(rows);
+        segments = new MappedByteBuffer[0][];
+    }
+
+    private void force() {
+        for (MappedByteBuffer[] segment : segments) {
+            for (MappedByteBuffer column : segment) {
+                column.force();
+            }
+        }
+    }
+
+    // written aside and moved into place, so a reader never sees half a file
+    private synchronized void writeMeta(int rows) {
+        List<String> meta = new ArrayList<>();
+        meta.add("rows " + rows);
+        meta.add("seats " + seats);
+        for (Map.Entry<String, Integer> strategy : strategyIds.entrySet()) {
+            meta.add("strategy " + strategy.getValue() + " " + strategy.getKey());
+        }
+
+        Path file = directory.resolve(META_FILE);
+        try {
+            Path temporary = Files.createTempFile(directory, META_FILE, ".tmp");
+            try {
+                Files.write(temporary, meta, StandardCharsets.UTF_8);
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write result store: " + file, e);
+        }
+    }
+}
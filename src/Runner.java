@@ -1,37 +1,164 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+
 public class Runner {
 
     //TODO add unit tests, javadocs
 
     private static final int NUMBER_OF_GAMES = 10000;
 
+    // set above zero, e.g. 0.005, to stop once every win rate is within that much of its true value
+    // NUMBER_OF_GAMES then caps the run
+    private static final double TARGET_PRECISION = 0;
+    private static final double CONFIDENCE = 0.95;
+    private static final int BATCH_SIZE = 2000;
+    private static final int NUMBER_OF_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // set to a directory, e.g. Paths.get("traces"), to record every game for TraceReader
+    // with a checkpoint, the traces are synced at every save and a resumed run carries on after them
+    private static final Path TRACE_DIRECTORY = null;
+
+    // set to a directory, e.g. Paths.get("results"), to store a row per game for ResultQuery
+    // with a checkpoint, the store is synced at every save and a resumed run carries on writing it
+    private static final Path RESULT_DIRECTORY = null;
+
+    // set to a file, e.g. Paths.get("runner.checkpoint"), to save progress every CHECKPOINT_INTERVAL games
+    // starting again with the file in place resumes the run - seed and game count then come from the file, and
+    // the deck, players and deck sizes must not have changed. A checkpointed run plays every game, so it can't be
+    // combined with TARGET_PRECISION
+    private static final Path CHECKPOINT_FILE = null;
+    private static final int CHECKPOINT_INTERVAL = 1000000;
+
+    private static final int[] STARTING_DECK_SIZES = {10, 10, 10};
+
+    // usage: Runner [masterSeed [gameIndex]] - passing a game index replays that one game with text logging
     public static void main(String[] args) {
-        StatsTracker statsTracker = new StatsTracker();
-        for (int i = 0; i < NUMBER_OF_GAMES; i ++) {
-            new Game.Builder()
-                    //.addPlayer(new Player("PhilManual", new ManualStrategy()))
-                    .addPlayer(new Player("CarolWildcard", new RandomStrategy()))
-                    .addPlayer(new Player("JessWildcard", new RandomStrategy()))
-                    .addPlayer(new Player("GeorgeWildcard", new RandomStrategy()))
-                    //.addPlayer(new Player("FalafelWildcard", new RandomStrategy()))
-                    //.addPlayer(new Player("SteveWildcard", new RandomStrategy()))
-                    //.addPlayer(new Player("BobBulk", new BulkNaiveStrategy()))
-                    //.addPlayer(new Player("FrancisSlim", new SlimNaiveStrategy()))
-                    //.addPlayer(new Player("DebbieDeck", new DeckNaiveStrategy()))
-                    //.addToDeck(Card.POTATO, 6)
-                    .addToDeck(Card.CARROT, 6)
-                    .addToDeck(Card.BROCCOLI_V2, 6)
-                    .addToDeck(Card.ONION, 6)
-                    .addToDeck(Card.BANANA, 6)
-                    //.addToDeck(Card.OLD_BANANA, 6)
-                    .addToDeck(Card.AVOCADO, 6)
-                    .addToDeck(Card.RADISH, 6)
-                    .addToDeck(Card.LEMON, 6)
-                    .addToDeck(Card.POTATO_V2, 6)
-                    .addToDeck(Card.TRADE, 6)//TODO add to strategies
-                    //.addLogger(new TextLogger())
-                    .addLogger(statsTracker)
-                    .start(10, 10, 10);
+        long masterSeed = args.length > 0 ? Long.parseLong(args[0]) : new SplittableRandom().nextLong();
+        if (args.length > 1) {
+            playGame(masterSeed, Integer.parseInt(args[1]), new TextLogger());
+            return;
         }
+
+        Checkpoint checkpoint = null;
+        if (CHECKPOINT_FILE != null) {
+            if (TARGET_PRECISION > 0) {
+                throw new IllegalStateException("CHECKPOINT_FILE and TARGET_PRECISION can't both be set");
+            }
+            // the seed doesn't go into the description, so any game's setup describes them all
+            String configuration = newGame(masterSeed, 0).describe(STARTING_DECK_SIZES);
+            checkpoint = Checkpoint.resumeOrStart(CHECKPOINT_FILE, configuration, masterSeed, NUMBER_OF_GAMES);
+            if (args.length > 0 && checkpoint.getMasterSeed() != masterSeed) {
+                throw new IllegalStateException("Checkpoint " + CHECKPOINT_FILE + " is for seed " + checkpoint.getMasterSeed());
+            }
+            masterSeed = checkpoint.getMasterSeed();
+            if (checkpoint.getNextGame() > 0) {
+                System.out.println("Resuming at game " + checkpoint.getNextGame() + " of " + checkpoint.getNumberOfGames());
+            }
+        }
+        playGames(masterSeed, checkpoint);
+    }
+
+    private static void playGames(long masterSeed, Checkpoint checkpoint) {
+        System.out.println("Seed: " + masterSeed);
+        TraceRecorder traceRecorder = null;
+        if (TRACE_DIRECTORY != null && checkpoint == null) {
+            traceRecorder = new TraceRecorder(TRACE_DIRECTORY);
+        } else if (TRACE_DIRECTORY != null) {
+            if (!checkpoint.hasTraces()) {
+                throw new IllegalStateException("Checkpoint " + CHECKPOINT_FILE + " was saved without traces");
+            }
+            traceRecorder = TraceRecorder.resume(TRACE_DIRECTORY, checkpoint.getTracePositions());
+            checkpoint.attach(traceRecorder);
+        }
+        ResultStore resultStore = null;
+        if (RESULT_DIRECTORY != null && checkpoint == null) {
+            resultStore = new ResultStore(RESULT_DIRECTORY);
+        } else if (RESULT_DIRECTORY != null) {
+            if (!checkpoint.hasResults()) {
+                throw new IllegalStateException("Checkpoint " + CHECKPOINT_FILE + " was saved without a result store");
+            }
+            resultStore = ResultStore.resume(RESULT_DIRECTORY, checkpoint.getResultRows());
+            checkpoint.attach(resultStore);
+        }
+        List<Logger> extraLoggers = new ArrayList<>();
+        if (traceRecorder != null) extraLoggers.add(traceRecorder);
+        if (resultStore != null) extraLoggers.add(resultStore);
+        Logger[] loggers = extraLoggers.toArray(new Logger[extraLoggers.size() + 1]);
+        BatchRunner.GameSetup setup = (gameIndex, tracker) -> {
+            if (loggers.length == 1) {
+                playGame(masterSeed, gameIndex, tracker);
+            } else {
+                // each worker has its own tracker, so each call gets its own copy of the logger list
+                Logger[] gameLoggers = loggers.clone();
+                gameLoggers[gameLoggers.length - 1] = tracker;
+                playGame(masterSeed, gameIndex, gameLoggers);
+            }
+        };
+
+        BatchRunner batchRunner = new BatchRunner(NUMBER_OF_THREADS);
+        StatsTracker statsTracker;
+        if (checkpoint != null) {
+            statsTracker = batchRunner.run(checkpoint, CHECKPOINT_INTERVAL, setup);
+        } else if (TARGET_PRECISION > 0) {
+            statsTracker = batchRunner.runUntilPrecise(TARGET_PRECISION, CONFIDENCE, BATCH_SIZE, NUMBER_OF_GAMES, setup);
+            System.out.println("Games played: " + (statsTracker.getTotalGames() + statsTracker.getStalledGames()));
+        } else {
+            statsTracker = batchRunner.run(NUMBER_OF_GAMES, setup);
+        }
+        if (traceRecorder != null) traceRecorder.close();
+        if (resultStore != null) resultStore.close();
         statsTracker.printTotalStats();
     }
+
+    private static void playGame(long masterSeed, int gameIndex, Logger ... loggers) {
+        Game.Builder builder = newGame(masterSeed, gameIndex);
+        for (Logger logger : loggers) {
+            builder.addLogger(logger);
+        }
+        builder.start(STARTING_DECK_SIZES);
+    }
+
+    // deck, players and seed of a game, before loggers
+    private static Game.Builder newGame(long masterSeed, int gameIndex) {
+        return addDeck(new Game.Builder())
+                //.addPlayer(new Player("PhilManual", new ManualStrategy()))
+                .addPlayer(new Player("CarolWildcard", new RandomStrategy()))
+                .addPlayer(new Player("JessWildcard", new RandomStrategy()))
+                .addPlayer(new Player("GeorgeWildcard", new RandomStrategy()))
+                //.addPlayer(new Player("FalafelWildcard", new RandomStrategy()))
+                //.addPlayer(new Player("SteveWildcard", new RandomStrategy()))
+                //.addPlayer(new Player("BobBulk", new BulkNaiveStrategy()))
+                //.addPlayer(new Player("FrancisSlim", new SlimNaiveStrategy()))
+                //.addPlayer(new Player("DebbieDeck", new DeckNaiveStrategy()))
+                //.addPlayer(new Player("MontyCarlo", new MctsStrategy()))
+                .setSeed(Randoms.seedFor(masterSeed, gameIndex));
+    }
+
+    // deck mix shared by the simulation, the batch engine and the benchmarks
+    static Game.Builder addDeck(Game.Builder builder) {
+        addDeck(builder::addToDeck);
+        return builder;
+    }
+
+    static BatchEngine.Builder addDeck(BatchEngine.Builder builder) {
+        addDeck(builder::addToDeck);
+        return builder;
+    }
+
+    private static void addDeck(BiConsumer<Card, Integer> deck) {
+        //deck.accept(Card.POTATO, 6);
+        deck.accept(Card.CARROT, 6);
+        deck.accept(Card.BROCCOLI_V2, 6);
+        deck.accept(Card.ONION, 6);
+        deck.accept(Card.BANANA, 6);
+        //deck.accept(Card.OLD_BANANA, 6);
+        deck.accept(Card.AVOCADO, 6);
+        deck.accept(Card.RADISH, 6);
+        deck.accept(Card.LEMON, 6);
+        deck.accept(Card.POTATO_V2, 6);
+        deck.accept(Card.TRADE, 6);//TODO add to strategies
+    }
 }
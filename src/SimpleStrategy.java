@@ -1,28 +1,77 @@
+import java.util.Arrays;
 import java.util.List;
 
 abstract class SimpleStrategy extends RandomStrategy {
 
+    private static final int UNRANKED = Integer.MAX_VALUE;
+
+    // the play order last compiled - its position in the order for every harvest and play by card ordinal, so a
+    // decision only looks at the cards in the garden and hand. The first entry for a card ranks it, as in a walk
+    private List<Action> compiledOrder;
+    private final int[] harvestRanks = new int[Card.count()];
+    private final int[] playRanks = new int[Card.count()];
+    private final Action[] harvests = new Action[Card.count()];
+    private final Action[] plays = new Action[Card.count()];
+
     abstract List<Action> playOrder(final Game game);
 
     @Override
     public Action chooseNextAction(final Game game) {
-        // check the pick order for valid actions
-        for (Action action : playOrder(game)) {
-            if (action.getType() == Action.Type.HARVEST
-                    && game.getCurrentPlayer().canHarvest(game)
-                    && game.getGarden().contains(action.getCard())) {
-                return action;
-            } else if (action.getType() == Action.Type.PLAY
-                    && game.getCurrentPlayer().getHand().contains(action.getCard())
-                    && action.getCard().canBePlayed(game)) {
-                return action;
+        List<Action> playOrder = playOrder(game);
+        if (playOrder != compiledOrder) compile(playOrder);
+
+        // best ranked valid action - the one a walk down the pick order would reach first
+        Player player = game.getCurrentPlayer();
+        int best = UNRANKED;
+        Action choice = null;
+        if (player.canHarvest(game)) {
+            for (Card card : game.getGarden()) {
+                if (harvestRanks[card.ordinal()] < best) {
+                    best = harvestRanks[card.ordinal()];
+                    choice = harvests[card.ordinal()];
+                }
+            }
+        }
+
+        // cards in hand that outrank the harvest are checked best first, so canBePlayed runs no more than in a walk
+        long candidates = player.getHandMask();
+        while (candidates != 0) {
+            int next = -1;
+            int rank = best;
+            for (long bits = candidates; bits != 0; bits &= bits - 1) {
+                int ordinal = Long.numberOfTrailingZeros(bits);
+                if (playRanks[ordinal] < rank) {
+                    rank = playRanks[ordinal];
+                    next = ordinal;
+                }
             }
+            if (next < 0) break;
+            if (Card.byOrdinal(next).canBePlayed(game)) return plays[next];
+            candidates &= ~(1L << next);
         }
+        if (choice != null) return choice;
 
         // fallback to random action if no picks are valid
         return super.chooseNextAction(game);
     }
 
+    private void compile(final List<Action> playOrder) {
+        Arrays.fill(harvestRanks, UNRANKED);
+        Arrays.fill(playRanks, UNRANKED);
+        for (int i = playOrder.size() - 1; i >= 0; i--) {
+            Action action = playOrder.get(i);
+            int ordinal = action.getCard().ordinal();
+            if (action.getType() == Action.Type.HARVEST) {
+                harvestRanks[ordinal] = i;
+                harvests[ordinal] = action;
+            } else {
+                playRanks[ordinal] = i;
+                plays[ordinal] = action;
+            }
+        }
+        compiledOrder = playOrder;
+    }
+
     @Override
     public Player chooseOpponent(final List<Player> players) {
         if (players.isEmpty()) throw new IllegalStateException("Opponent list is empty");
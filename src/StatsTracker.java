@@ -1,53 +1,201 @@
-import java.util.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 class StatsTracker implements Logger {
 
-    private final Map<String, Integer> winTracker = new HashMap<>();
-    private final Map<Integer, Integer> gameLengthTracker = new HashMap<>();
-    private final Map<Long, Integer> winsByTurnPosition = new HashMap<>();
-    private final Map<Integer, Integer> winnerArtichokeRate = new HashMap<>();
-    private final Map<Integer, Integer> allArtichokeRate = new HashMap<>();
-    private final Map<Integer, Integer> gardenSize = new HashMap<>();
+    private static final int MAX_GAME_LENGTH = 200;
+    private static final int MAX_TURN_POSITION = 16;
+    private static final int MAX_GARDEN_SIZE = 500;
+    private static final int MAX_RATE_BUCKET = 100;
+    private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.of(Event.GAME_OVER, Event.GAME_STALLED));
+
+    private String[] winnerNames = new String[4];
+    private int[] winTracker = new int[4];
+    private int numberOfWinners = 0;
+
+    private final Histogram gameLengthTracker = new Histogram(MAX_GAME_LENGTH);
+    private final Histogram winsByTurnPosition = new Histogram(MAX_TURN_POSITION);
+    private final Histogram winnerArtichokeRate = new Histogram(MAX_RATE_BUCKET);
+    private final Histogram allArtichokeRate = new Histogram(MAX_RATE_BUCKET);
+    private final Histogram gardenSize = new Histogram(MAX_GARDEN_SIZE);
     private int totalGames = 0;
+    private int stalledGames = 0;
     private int totalDecks = 0;
 
+    int getTotalGames() {
+        return totalGames;
+    }
+
+    int getStalledGames() {
+        return stalledGames;
+    }
+
+    int getWins(final String name) {
+        for (int i = 0; i < numberOfWinners; i++) {
+            if (winnerNames[i].equals(name)) return winTracker[i];
+        }
+        return 0;
+    }
+
+    // widest confidence interval over every tracked proportion - each player's win rate and the stalled rate
+    double getMaxHalfWidth(final double z) {
+        int games = totalGames + stalledGames;
+        double maxHalfWidth = Statistics.wilsonHalfWidth(stalledGames, games, z);
+        for (int i = 0; i < numberOfWinners; i++) {
+            maxHalfWidth = Math.max(maxHalfWidth, Statistics.wilsonHalfWidth(winTracker[i], games, z));
+        }
+        return maxHalfWidth;
+    }
+
+    Histogram getGameLengths() {
+        return gameLengthTracker;
+    }
+
+    Histogram getRemainingGardenSizes() {
+        return gardenSize;
+    }
+
+    Histogram getWinsByTurnPosition() {
+        return winsByTurnPosition;
+    }
+
+    Histogram getAllArtichokeRates() {
+        return allArtichokeRate;
+    }
+
     void printTotalStats() {
         System.out.println();
-        if (totalGames < 1 || winTracker.isEmpty()) {
+        if (stalledGames > 0) {
+            System.out.println("Stalled games: " + stalledGames + " (" +
+                    (Math.round((stalledGames * 100f) / (totalGames + stalledGames))) + "%)");
+            System.out.println();
+        }
+
+        if (totalGames < 1 || numberOfWinners == 0) {
             System.out.println("No stats to report");
             return;
         }
 
         System.out.println("Player wins:");
-        printMap(winTracker, totalGames);
+        printWins();
 
         System.out.println();
         System.out.println("Game lengths:");
-        printMap(gameLengthTracker, totalGames);
+        gameLengthTracker.print(totalGames);
 
         System.out.println();
         System.out.println("Wins by turn position:");
-        printMap(winsByTurnPosition, totalGames);
+        winsByTurnPosition.print(totalGames);
 
         System.out.println();
         System.out.println("Remaining garden size:");
-        printMap(gardenSize, totalGames);
+        gardenSize.print(totalGames);
 
         System.out.println();
         System.out.println("Winner percentage of Artichokes:");
-        printMap(winnerArtichokeRate, totalGames);
+        winnerArtichokeRate.print(totalGames);
 
         System.out.println();
         System.out.println("All percentage of Artichokes:");
-        printMap(allArtichokeRate, totalDecks);
+        allArtichokeRate.print(totalDecks);
+    }
+
+    private void printWins() {
+        Integer[] order = new Integer[numberOfWinners];
+        for (int i = 0; i < numberOfWinners; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(winTracker[b], winTracker[a]));
+        for (int i : order) {
+            Histogram.printLine(winnerNames[i], winTracker[i], totalGames);
+        }
+    }
+
+    void merge(final StatsTracker other) {
+        totalGames += other.totalGames;
+        stalledGames += other.stalledGames;
+        totalDecks += other.totalDecks;
+        for (int i = 0; i < other.numberOfWinners; i++) {
+            // look up first - a new name can grow the table
+            int winner = winnerIndex(other.winnerNames[i]);
+            winTracker[winner] += other.winTracker[i];
+        }
+        gameLengthTracker.merge(other.gameLengthTracker);
+        winsByTurnPosition.merge(other.winsByTurnPosition);
+        winnerArtichokeRate.merge(other.winnerArtichokeRate);
+        allArtichokeRate.merge(other.allArtichokeRate);
+        gardenSize.merge(other.gardenSize);
+    }
+
+    // every count, in a fixed order - read adds them back, so a saved tracker merges like a live one
+    void write(final DataOutput out) throws IOException {
+        out.writeInt(totalGames);
+        out.writeInt(stalledGames);
+        out.writeInt(totalDecks);
+        out.writeInt(numberOfWinners);
+        for (int i = 0; i < numberOfWinners; i++) {
+            out.writeUTF(winnerNames[i]);
+            out.writeInt(winTracker[i]);
+        }
+        gameLengthTracker.write(out);
+        winsByTurnPosition.write(out);
+        winnerArtichokeRate.write(out);
+        allArtichokeRate.write(out);
+        gardenSize.write(out);
+    }
+
+    void read(final DataInput in) throws IOException {
+        totalGames += in.readInt();
+        stalledGames += in.readInt();
+        totalDecks += in.readInt();
+        int winners = in.readInt();
+        for (int i = 0; i < winners; i++) {
+            int winner = winnerIndex(in.readUTF());
+            winTracker[winner] += in.readInt();
+        }
+        gameLengthTracker.read(in);
+        winsByTurnPosition.read(in);
+        winnerArtichokeRate.read(in);
+        allArtichokeRate.read(in);
+        gardenSize.read(in);
     }
 
-    private void printMap(final Map<?, Integer> map, final int percentBase) {
-        List<Map.Entry<?, Integer>> playerWins = new ArrayList<>(map.entrySet());
-        playerWins.sort(Comparator.comparing(Map.Entry::getValue));
-        Collections.reverse(playerWins);
-        playerWins.forEach(entry -> System.out.println(entry.getKey() + " - " + entry.getValue() + " (" +
-                (Math.round((entry.getValue() * 100f) / percentBase)) + "%)"));
+    private int winnerIndex(final String name) {
+        for (int i = 0; i < numberOfWinners; i++) {
+            if (winnerNames[i].equals(name)) return i;
+        }
+
+        // first win for this player
+        if (numberOfWinners == winnerNames.length) {
+            winnerNames = Arrays.copyOf(winnerNames, numberOfWinners * 2);
+            winTracker = Arrays.copyOf(winTracker, numberOfWinners * 2);
+        }
+        winnerNames[numberOfWinners] = name;
+        return numberOfWinners++;
+    }
+
+    private static int rateBucket(final Player player) {
+        return rateBucket(player.getArtichokeRate());
+    }
+
+    static int rateBucket(final float artichokeRate) {
+        return (int) Math.ceil(artichokeRate * 10) * 10;
+    }
+
+    @Override
+    public Set<Event> getEvents() {
+        return EVENTS;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        // no-op
     }
 
     @Override
@@ -75,45 +223,59 @@ class StatsTracker implements Logger {
         // no-op
     }
 
+    @Override
+    public void gameStalled(Game game) {
+        gameStalled();
+    }
+
+    // a stalled game told without a Game object, as the batch engine does
+    void gameStalled() {
+        stalledGames ++;
+    }
+
     @Override
     public void gameOver(Game game) {
+        // track wins by turn position
+        int length = game.getCurrentPlayer().getNumberOfTurnsTaken();
+        int position = 1;
+        for (Player player : game.getOpponents()) {
+            if (player.getNumberOfTurnsTaken() >= length) position ++;
+        }
+
+        gameOver(game.getCurrentPlayer().getName(), length, position, rateBucket(game.getCurrentPlayer()),
+                game.getRemainingGardenSize());
+
+        // track Artichoke rate in the other decks
+        for (Player player : game.getOpponents()) {
+            addDeckArtichokeRate(rateBucket(player));
+        }
+    }
+
+    // a finished game told without a Game object, as the batch engine does - the losing decks follow through
+    // addDeckArtichokeRate
+    void gameOver(String winnerName, int length, int position, int winnerRateBucket, int remainingGardenSize) {
         totalGames ++;
-        totalDecks = totalDecks + game.getOpponents().size() + 1;
 
         // track player wins
-        String name = game.getCurrentPlayer().getName();
-        if (!winTracker.containsKey(name)) winTracker.put(name, 0);
-        winTracker.put(name, winTracker.get(name) + 1);
+        int winner = winnerIndex(winnerName);
+        winTracker[winner] ++;
 
         // track game lengths
-        int length = game.getCurrentPlayer().getNumberOfTurnsTaken();
-        if (!gameLengthTracker.containsKey(length)) gameLengthTracker.put(length, 0);
-        gameLengthTracker.put(length, gameLengthTracker.get(length) + 1);
+        gameLengthTracker.add(length);
 
         // track wins by turn position
-        long position = game.getOpponents().stream()
-                .filter(player -> player.getNumberOfTurnsTaken() >= game.getCurrentPlayer().getNumberOfTurnsTaken())
-                .count() + 1;
-        if (!winsByTurnPosition.containsKey(position)) winsByTurnPosition.put(position, 0);
-        winsByTurnPosition.put(position, winsByTurnPosition.get(position) + 1);
-
-        // track Artichoke rate in winning deck
-        int winnerRateBucket = (int) Math.ceil(game.getCurrentPlayer().getArtichokeRate() * 10) * 10;
-        if (!winnerArtichokeRate.containsKey(winnerRateBucket)) winnerArtichokeRate.put(winnerRateBucket, 0);
-        winnerArtichokeRate.put(winnerRateBucket, winnerArtichokeRate.get(winnerRateBucket) + 1);
-
-        // track Artichoke rate in all decks
-        if (!allArtichokeRate.containsKey(winnerRateBucket)) allArtichokeRate.put(winnerRateBucket, 0);
-        allArtichokeRate.put(winnerRateBucket, allArtichokeRate.get(winnerRateBucket) + 1);
-        for (Player player : game.getOpponents()) {
-            int rateBucket = (int) Math.ceil(player.getArtichokeRate() * 10) * 10;
-            if (!allArtichokeRate.containsKey(rateBucket)) allArtichokeRate.put(rateBucket, 0);
-            allArtichokeRate.put(rateBucket, allArtichokeRate.get(rateBucket) + 1);
-        }
+        winsByTurnPosition.add(position);
+
+        // track Artichoke rate in winning deck, which also counts among all decks
+        winnerArtichokeRate.add(winnerRateBucket);
+        addDeckArtichokeRate(winnerRateBucket);
 
         // track garden size
-        int remainingGarden = game.getRemainingGardenSize();
-        if (!gardenSize.containsKey(remainingGarden)) gardenSize.put(remainingGarden, 0);
-        gardenSize.put(remainingGarden, gardenSize.get(remainingGarden) + 1);
+        gardenSize.add(remainingGardenSize);
+    }
+
+    void addDeckArtichokeRate(int rateBucket) {
+        totalDecks ++;
+        allArtichokeRate.add(rateBucket);
     }
 }
@@ -0,0 +1,32 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// built-in strategies by name, for sweeps and other batch tools configured from text
+final class Strategies {
+
+    private static final Map<String, Supplier<Strategy>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("Random", RandomStrategy::new);
+        STRATEGIES.put("BulkNaive", BulkNaiveStrategy::new);
+        STRATEGIES.put("SlimNaive", SlimNaiveStrategy::new);
+        STRATEGIES.put("DeckNaive", DeckNaiveStrategy::new);
+        STRATEGIES.put("Mcts", MctsStrategy::new);
+    }
+
+    private Strategies() {
+    }
+
+    static Set<String> names() {
+        return Collections.unmodifiableSet(STRATEGIES.keySet());
+    }
+
+    static Supplier<Strategy> byName(String name) {
+        Supplier<Strategy> strategy = STRATEGIES.get(name);
+        if (strategy == null) throw new IllegalArgumentException("Unknown strategy: " + name + " - known: " + names());
+        return strategy;
+    }
+}
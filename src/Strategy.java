@@ -1,7 +1,10 @@
 import java.util.List;
+import java.util.SplittableRandom;
 
 public interface Strategy {
 
+    void initialize(final SplittableRandom random);
+
     Action chooseNextAction(final Game game);
 
     Card pickCardForTopOfDeck(final List<Card> cards);
@@ -0,0 +1,308 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// plays a batch of games at every point of a grid over deck composition, deck sizes and line-ups
+class Sweep {
+
+    // games per scheduled task - points are split into blocks so the last few points still use every core
+    private static final int BLOCK_SIZE = 1000;
+
+    private final Map<Card, int[]> cardCounts = new EnumMap<>(Card.class);
+    private final List<int[]> startingDeckSizes = new ArrayList<>();
+    private final List<String[]> lineups = new ArrayList<>();
+    private int[] playerCounts = new int[0];
+    private int gamesPerPoint = 10000;
+    private long masterSeed = 0;
+
+    Sweep addCardCounts(Card card, int ... counts) {
+        cardCounts.put(card, counts.clone());
+        return this;
+    }
+
+    // one size applies to every seat, otherwise there must be one size per seat
+    Sweep addStartingDeckSizes(int ... sizes) {
+        startingDeckSizes.add(sizes.clone());
+        return this;
+    }
+
+    // one strategy fills every seat for each of the player counts, otherwise one strategy per seat
+    Sweep addLineup(String ... strategies) {
+        for (String strategy : strategies) {
+            Strategies.byName(strategy);
+        }
+        lineups.add(strategies.clone());
+        return this;
+    }
+
+    Sweep setPlayerCounts(int ... counts) {
+        playerCounts = counts.clone();
+        return this;
+    }
+
+    Sweep setGamesPerPoint(int games) {
+        gamesPerPoint = games;
+        return this;
+    }
+
+    Sweep setSeed(long seed) {
+        masterSeed = seed;
+        return this;
+    }
+
+    List<Point> points() {
+        // expand single-strategy line-ups to every player count
+        List<String[]> seatings = new ArrayList<>();
+        for (String[] lineup : lineups) {
+            if (lineup.length > 1 || playerCounts.length == 0) {
+                seatings.add(lineup);
+                continue;
+            }
+            for (int count : playerCounts) {
+                String[] seating = new String[count];
+                Arrays.fill(seating, lineup[0]);
+                seatings.add(seating);
+            }
+        }
+
+        // every combination of card counts, in card order
+        List<int[]> decks = new ArrayList<>();
+        decks.add(new int[Card.count()]);
+        for (Map.Entry<Card, int[]> entry : cardCounts.entrySet()) {
+            List<int[]> expanded = new ArrayList<>();
+            for (int[] deck : decks) {
+                for (int count : entry.getValue()) {
+                    int[] next = deck.clone();
+                    next[entry.getKey().ordinal()] = count;
+                    expanded.add(next);
+                }
+            }
+            decks = expanded;
+        }
+
+        // per-seat deck sizes only combine with line-ups of the same size
+        List<Point> points = new ArrayList<>();
+        for (String[] seating : seatings) {
+            for (int[] sizes : startingDeckSizes) {
+                if (sizes.length != 1 && sizes.length != seating.length) continue;
+                int[] seatSizes = new int[seating.length];
+                for (int i = 0; i < seatSizes.length; i++) {
+                    seatSizes[i] = sizes.length == 1 ? sizes[0] : sizes[i];
+                }
+                for (int[] deck : decks) {
+                    points.add(new Point(points.size(), deck, seatSizes, seating));
+                }
+            }
+        }
+        if (points.isEmpty()) throw new IllegalStateException("Sweep has no points - check line-ups and deck sizes");
+        return points;
+    }
+
+    // results are written as CSV rows in the order points finish
+    void run(int numberOfThreads, PrintWriter out) {
+        List<Point> points = points();
+        int maxPlayers = points.stream().mapToInt(point -> point.lineup.length).max().orElse(0);
+        writeHeader(out, maxPlayers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Point point : points) {
+                PointResult result = new PointResult(point, (gamesPerPoint + BLOCK_SIZE - 1) / BLOCK_SIZE);
+                for (int start = 0; start < gamesPerPoint; start += BLOCK_SIZE) {
+                    int end = Math.min(start + BLOCK_SIZE, gamesPerPoint);
+                    int blockStart = start;
+                    tasks.add(executor.submit(() -> {
+                        StatsTracker statsTracker = new StatsTracker();
+                        for (int i = blockStart; i < end; i++) {
+                            point.playGame(masterSeed, i, statsTracker);
+                        }
+                        result.blockFinished(statsTracker, out, maxPlayers);
+                    }));
+                }
+            }
+
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running sweep", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep point failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeHeader(PrintWriter out, int maxPlayers) {
+        StringBuilder header = new StringBuilder("point,games,stalled,deck,deck_sizes,lineup");
+        for (int i = 1; i <= maxPlayers; i++) {
+            header.append(",win_rate_").append(i);
+        }
+        header.append(",length_mean,length_p10,length_p50,length_p90,garden_mean,garden_p50");
+        out.println(header);
+        out.flush();
+    }
+
+    // usage: Sweep <spec.properties> [results.csv] - see sweep.properties for the spec format
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) throw new IllegalArgumentException("Usage: Sweep <spec.properties> [results.csv]");
+
+        Properties spec = new Properties();
+        try (Reader reader = new FileReader(args[0])) {
+            spec.load(reader);
+        }
+
+        PrintWriter out = args.length > 1
+                ? new PrintWriter(Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8))
+                : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try {
+            fromProperties(spec).run(Runtime.getRuntime().availableProcessors(), out);
+        } finally {
+            out.flush();
+            if (args.length > 1) out.close();
+        }
+    }
+
+    static Sweep fromProperties(Properties spec) {
+        Sweep sweep = new Sweep()
+                .setGamesPerPoint(Integer.parseInt(spec.getProperty("games", "10000").trim()))
+                .setSeed(Long.parseLong(spec.getProperty("seed", "0").trim()))
+                .setPlayerCounts(parseInts(spec.getProperty("players", ""), ","));
+
+        for (String name : spec.stringPropertyNames()) {
+            if (!name.startsWith("card.")) continue;
+            sweep.addCardCounts(Card.valueOf(name.substring("card.".length())), parseInts(spec.getProperty(name), ","));
+        }
+        for (String sizes : spec.getProperty("deckSizes", "10").split(";")) {
+            sweep.addStartingDeckSizes(parseInts(sizes, "\\s+"));
+        }
+        for (String lineup : spec.getProperty("lineups", "Random").split(";")) {
+            sweep.addLineup(lineup.trim().split("\\s+"));
+        }
+        return sweep;
+    }
+
+    private static int[] parseInts(String values, String separator) {
+        if (values.trim().isEmpty()) return new int[0];
+        return Arrays.stream(values.trim().split(separator)).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    static class Point {
+
+        final int index;
+        final int[] deck;
+        final int[] startingDeckSizes;
+        final String[] lineup;
+
+        Point(int index, int[] deck, int[] startingDeckSizes, String[] lineup) {
+            this.index = index;
+            this.deck = deck;
+            this.startingDeckSizes = startingDeckSizes;
+            this.lineup = lineup;
+        }
+
+        // seat number keeps players with the same strategy apart
+        String playerName(int seat) {
+            return (seat + 1) + "-" + lineup[seat];
+        }
+
+        void playGame(long masterSeed, int gameIndex, Logger logger) {
+            Game.Builder builder = new Game.Builder();
+            for (int i = 0; i < lineup.length; i++) {
+                builder.addPlayer(new Player(playerName(i), Strategies.byName(lineup[i]).get()));
+            }
+            for (int i = 0; i < deck.length; i++) {
+                if (deck[i] > 0) builder.addToDeck(Card.byOrdinal(i), deck[i]);
+            }
+            builder.addLogger(logger)
+                    .setSeed(Randoms.seedFor(masterSeed, gameIndex))
+                    .start(startingDeckSizes);
+        }
+
+        String describeDeck() {
+            List<String> cards = new ArrayList<>();
+            for (int i = 0; i < deck.length; i++) {
+                if (deck[i] > 0) cards.add(Card.byOrdinal(i).name() + ":" + deck[i]);
+            }
+            return String.join(" ", cards);
+        }
+    }
+
+    private static class PointResult {
+
+        private final Point point;
+        private final StatsTracker statsTracker = new StatsTracker();
+        private final AtomicInteger remainingBlocks;
+
+        private PointResult(Point point, int blocks) {
+            this.point = point;
+            this.remainingBlocks = new AtomicInteger(blocks);
+        }
+
+        private void blockFinished(StatsTracker block, PrintWriter out, int maxPlayers) {
+            synchronized (statsTracker) {
+                statsTracker.merge(block);
+            }
+            if (remainingBlocks.decrementAndGet() > 0) return;
+
+            // last block in - the point is complete
+            String row = row(maxPlayers);
+            synchronized (out) {
+                out.println(row);
+                out.flush();
+            }
+        }
+
+        private String row(int maxPlayers) {
+            int games = statsTracker.getTotalGames() + statsTracker.getStalledGames();
+            List<String> columns = new ArrayList<>();
+            columns.add(Integer.toString(point.index));
+            columns.add(Integer.toString(games));
+            columns.add(Integer.toString(statsTracker.getStalledGames()));
+            columns.add(point.describeDeck());
+            columns.add(Arrays.stream(point.startingDeckSizes).mapToObj(Integer::toString)
+                    .collect(Collectors.joining(" ")));
+            columns.add(String.join(" ", point.lineup));
+            for (int i = 0; i < maxPlayers; i++) {
+                columns.add(i < point.lineup.length
+                        ? format((double) statsTracker.getWins(point.playerName(i)) / games) : "");
+            }
+
+            Histogram lengths = statsTracker.getGameLengths();
+            columns.add(format(lengths.mean()));
+            columns.add(Integer.toString(lengths.percentile(0.1)));
+            columns.add(Integer.toString(lengths.percentile(0.5)));
+            columns.add(Integer.toString(lengths.percentile(0.9)));
+
+            Histogram gardenSizes = statsTracker.getRemainingGardenSizes();
+            columns.add(format(gardenSizes.mean()));
+            columns.add(Integer.toString(gardenSizes.percentile(0.5)));
+            return String.join(",", columns);
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.4f", value);
+        }
+    }
+}
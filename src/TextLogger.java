@@ -1,60 +1,109 @@
-import java.util.HashMap;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 class TextLogger implements Logger {
 
+    private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.allOf(Event.class));
+
+    private final PrintStream out;
+
+    TextLogger() {
+        this(System.out);
+    }
+
+    TextLogger(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public Set<Event> getEvents() {
+        return EVENTS;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        // no-op
+    }
+
     @Override
     public void gardenRefreshed(List<Card> garden) {
-        System.out.println("Garden: " + garden.stream().map(Enum::name).collect(Collectors.joining(", ")));
+        out.println("Garden: " + garden.stream().map(Enum::name).collect(Collectors.joining(", ")));
     }
 
     @Override
     public void startTurn(Player player) {
-        System.out.println();
-        System.out.println("Start Turn" + " - " + player.getName());
+        printStartTurn(player.getName());
         printPlayerStatus(player);
     }
 
     @Override
     public void cardPlanted(Card card) {
-        System.out.println("PLANT " + card.name());
+        out.println("PLANT " + card.name());
     }
 
     @Override
     public void actionChosen(Action action) {
-        System.out.println(action);
+        out.println(action);
     }
 
     @Override
     public void endTurn(Player player) {
         printPlayerStatus(player);
-        System.out.print("End Turn" + " - " + player.getName());
-        System.out.println(" - Turns taken: " + player.getNumberOfTurnsTaken());
-        System.out.println();
+        printEndTurn(player.getName(), player.getNumberOfTurnsTaken());
     }
 
     @Override
     public void gameOver(Game game) {
-        System.out.println(game.getCurrentPlayer().getName() + " wins!");
+        printWinner(game.getCurrentPlayer().getName());
     }
 
-    private void printPlayerStatus(final Player player) {
-        System.out.println("Hand: " + player.getHand().stream().map(Enum::name)
-                .collect(Collectors.joining(", ")));
-        System.out.print("Deck: " + player.getDeck().size() + ", Discard: " + player.getDiscard().size());
+    @Override
+    public void gameStalled(Game game) {
+        printStalled(game.getNumberOfTurnsTaken());
+    }
 
-        List<Card> allCards = player.getAllCards();
-        System.out.println(" Total: " + allCards.size());
+    // the print methods below are shared with TraceReader, which renders recorded games in this format
 
-        Map<Card, Integer> counts = new HashMap<>();
-        for (Card card : allCards) {
-            if (!counts.containsKey(card)) counts.put(card, 0);
-            counts.put(card, counts.get(card) + 1);
-        }
-        System.out.println(counts.entrySet().stream()
+    void printStartTurn(final String name) {
+        out.println();
+        out.println("Start Turn" + " - " + name);
+    }
+
+    void printEndTurn(final String name, final int turnsTaken) {
+        out.print("End Turn" + " - " + name);
+        out.println(" - Turns taken: " + turnsTaken);
+        out.println();
+    }
+
+    void printWinner(final String name) {
+        out.println(name + " wins!");
+    }
+
+    void printStalled(final int turnsTaken) {
+        out.println("Game stalled after " + turnsTaken + " turns");
+    }
+
+    void printPlayerStatus(final List<Card> hand, final int deckSize, final int discardSize,
+                           final Map<Card, Integer> counts) {
+        out.println("Hand: " + hand.stream().map(Enum::name).collect(Collectors.joining(", ")));
+        out.print("Deck: " + deckSize + ", Discard: " + discardSize);
+        out.println(" Total: " + counts.values().stream().mapToInt(Integer::intValue).sum());
+        out.println(counts.entrySet().stream()
                 .map(entry -> entry.getKey().name() + ":" + entry.getValue())
                 .collect(Collectors.joining(", ")));
     }
+
+    private void printPlayerStatus(final Player player) {
+        Map<Card, Integer> counts = new EnumMap<>(Card.class);
+        for (Card card : player.getAllCards()) {
+            counts.merge(card, 1, Integer::sum);
+        }
+        printPlayerStatus(player.getHand(), player.getDeckSize(), player.getDiscardSize(), counts);
+    }
 }
@@ -0,0 +1,310 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// plays every line-up of distinct strategies in every seat order, then reports head-to-head results and ratings
+class Tournament {
+
+    private static final int BOOTSTRAP_SAMPLES = 200;
+    private static final int RATING_ITERATIONS = 200;
+    private static final double AVERAGE_RATING = 1500;
+
+    private final List<String> strategies = new ArrayList<>();
+    private int playersPerGame = 3;
+    private int gamesPerSeating = 1000;
+    private int startingDeckSize = 10;
+    private double confidence = 0.95;
+    private long masterSeed = 0;
+
+    Tournament addStrategy(String strategy) {
+        Strategies.byName(strategy);
+        if (strategies.contains(strategy)) throw new IllegalArgumentException("Strategy entered twice: " + strategy);
+        strategies.add(strategy);
+        return this;
+    }
+
+    Tournament setPlayersPerGame(int players) {
+        playersPerGame = players;
+        return this;
+    }
+
+    Tournament setGamesPerSeating(int games) {
+        gamesPerSeating = games;
+        return this;
+    }
+
+    Tournament setStartingDeckSize(int size) {
+        startingDeckSize = size;
+        return this;
+    }
+
+    Tournament setConfidence(double confidence) {
+        this.confidence = confidence;
+        return this;
+    }
+
+    Tournament setSeed(long seed) {
+        masterSeed = seed;
+        return this;
+    }
+
+    // every ordered choice of distinct strategies - each line-up once per seat order, so seat bias cancels out
+    List<int[]> seatings() {
+        if (playersPerGame < 2 || playersPerGame > strategies.size()) {
+            throw new IllegalStateException("Need between 2 and " + strategies.size() + " players per game");
+        }
+        List<int[]> seatings = new ArrayList<>();
+        addSeatings(new int[playersPerGame], 0, new boolean[strategies.size()], seatings);
+        return seatings;
+    }
+
+    private void addSeatings(int[] seating, int seat, boolean[] used, List<int[]> seatings) {
+        if (seat == seating.length) {
+            seatings.add(seating.clone());
+            return;
+        }
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) continue;
+            used[i] = true;
+            seating[seat] = i;
+            addSeatings(seating, seat + 1, used, seatings);
+            used[i] = false;
+        }
+    }
+
+    Result run(int numberOfThreads) {
+        List<int[]> seatings = seatings();
+        StatsTracker statsTracker = new BatchRunner(numberOfThreads).run(seatings.size() * gamesPerSeating,
+                (gameIndex, tracker) -> {
+                    int s = gameIndex / gamesPerSeating;
+                    int[] seating = seatings.get(s);
+                    Game.Builder builder = Runner.addDeck(new Game.Builder()).keepSeatOrder();
+                    for (int seat = 0; seat < seating.length; seat++) {
+                        builder.addPlayer(new Player(playerName(s, seat, seating[seat]),
+                                Strategies.byName(strategies.get(seating[seat])).get()));
+                    }
+                    int[] startingDeckSizes = new int[seating.length];
+                    Arrays.fill(startingDeckSizes, startingDeckSize);
+                    builder.addLogger(tracker)
+                            .setSeed(Randoms.seedFor(masterSeed, gameIndex))
+                            .start(startingDeckSizes);
+                });
+
+        // wins per seat of every seating - all the rest is derived from these
+        int[][] wins = new int[seatings.size()][];
+        for (int s = 0; s < seatings.size(); s++) {
+            wins[s] = new int[playersPerGame];
+            for (int seat = 0; seat < playersPerGame; seat++) {
+                wins[s][seat] = statsTracker.getWins(playerName(s, seat, seatings.get(s)[seat]));
+            }
+        }
+        return new Result(seatings, wins);
+    }
+
+    // seating and seat keep every player name unique, so the tracker counts wins per seat of every seating
+    private String playerName(int seating, int seat, int strategy) {
+        return seating + "/" + seat + "-" + strategies.get(strategy);
+    }
+
+    // usage: Tournament [gamesPerSeating [playersPerGame [seed [strategy ...]]]]
+    public static void main(String[] args) {
+        Tournament tournament = new Tournament()
+                .setGamesPerSeating(args.length > 0 ? Integer.parseInt(args[0]) : 1000)
+                .setPlayersPerGame(args.length > 1 ? Integer.parseInt(args[1]) : 3)
+                .setSeed(args.length > 2 ? Long.parseLong(args[2]) : 0);
+        if (args.length > 3) {
+            for (int i = 3; i < args.length; i++) {
+                tournament.addStrategy(args[i]);
+            }
+        } else {
+            tournament.addStrategy("Random").addStrategy("BulkNaive").addStrategy("SlimNaive").addStrategy("DeckNaive");
+        }
+        tournament.run(Runtime.getRuntime().availableProcessors()).print(System.out);
+    }
+
+    class Result {
+
+        private final List<int[]> seatings;
+        private final int[][] wins;
+
+        private Result(List<int[]> seatings, int[][] wins) {
+            this.seatings = seatings;
+            this.wins = wins;
+        }
+
+        // games the row strategy won out of the games it played with the column strategy
+        double headToHead(int strategy, int opponent) {
+            int won = 0;
+            int played = 0;
+            for (int s = 0; s < seatings.size(); s++) {
+                int[] seating = seatings.get(s);
+                int seat = seatOf(seating, strategy);
+                if (seat < 0 || seatOf(seating, opponent) < 0) continue;
+                won += wins[s][seat];
+                played += gamesPerSeating;
+            }
+            return played == 0 ? Double.NaN : (double) won / played;
+        }
+
+        double seatWinRate(int seat) {
+            int won = 0;
+            for (int[] seatingWins : wins) {
+                won += seatingWins[seat];
+            }
+            return (double) won / (seatings.size() * gamesPerSeating);
+        }
+
+        int getStalledGames() {
+            int stalled = 0;
+            for (int[] seatingWins : wins) {
+                stalled += gamesPerSeating;
+                for (int won : seatingWins) {
+                    stalled -= won;
+                }
+            }
+            return stalled;
+        }
+
+        double[] ratings() {
+            return ratings(wins);
+        }
+
+        // Elo-scale Bradley-Terry ratings for who wins among the players at the table (Plackett-Luce on the
+        // winner only), fitted with Hunter's MM updates and centred on the average rating. Stalled games are left out
+        private double[] ratings(int[][] wins) {
+            int n = strategies.size();
+            int[] totalWins = new int[n];
+            for (int s = 0; s < seatings.size(); s++) {
+                for (int seat = 0; seat < playersPerGame; seat++) {
+                    totalWins[seatings.get(s)[seat]] += wins[s][seat];
+                }
+            }
+
+            double[] strength = new double[n];
+            Arrays.fill(strength, 1);
+            double[] exposure = new double[n];
+            for (int iteration = 0; iteration < RATING_ITERATIONS; iteration++) {
+                Arrays.fill(exposure, 0);
+                for (int s = 0; s < seatings.size(); s++) {
+                    int[] seating = seatings.get(s);
+                    int decided = 0;
+                    double tableStrength = 0;
+                    for (int seat = 0; seat < playersPerGame; seat++) {
+                        decided += wins[s][seat];
+                        tableStrength += strength[seating[seat]];
+                    }
+                    for (int strategy : seating) {
+                        exposure[strategy] += decided / tableStrength;
+                    }
+                }
+
+                // a strategy that never wins would go to zero strength - keep half a win so its rating stays finite
+                double logSum = 0;
+                for (int i = 0; i < n; i++) {
+                    strength[i] = Math.max(totalWins[i], 0.5) / exposure[i];
+                    logSum += Math.log(strength[i]);
+                }
+                double scale = Math.exp(logSum / n);
+                for (int i = 0; i < n; i++) {
+                    strength[i] /= scale;
+                }
+            }
+
+            double[] ratings = new double[n];
+            for (int i = 0; i < n; i++) {
+                ratings[i] = AVERAGE_RATING + 400 * Math.log10(strength[i]);
+            }
+            return ratings;
+        }
+
+        // percentile bootstrap - every seating's games are redrawn from its own observed outcome frequencies
+        double[][] ratingIntervals() {
+            SplittableRandom random = new SplittableRandom(Randoms.seedFor(masterSeed, -1));
+            double[][] samples = new double[strategies.size()][BOOTSTRAP_SAMPLES];
+            int[][] resampled = new int[seatings.size()][playersPerGame];
+            for (int b = 0; b < BOOTSTRAP_SAMPLES; b++) {
+                for (int s = 0; s < seatings.size(); s++) {
+                    Arrays.fill(resampled[s], 0);
+                    for (int game = 0; game < gamesPerSeating; game++) {
+                        int outcome = random.nextInt(gamesPerSeating);
+                        for (int seat = 0; seat < playersPerGame; seat++) {
+                            outcome -= wins[s][seat];
+                            if (outcome < 0) {
+                                resampled[s][seat] ++;
+                                break;
+                            }
+                        }
+                    }
+                }
+                double[] ratings = ratings(resampled);
+                for (int i = 0; i < ratings.length; i++) {
+                    samples[i][b] = ratings[i];
+                }
+            }
+
+            double[][] intervals = new double[strategies.size()][];
+            int low = (int) Math.floor((1 - confidence) / 2 * (BOOTSTRAP_SAMPLES - 1));
+            int high = (int) Math.ceil((1 + confidence) / 2 * (BOOTSTRAP_SAMPLES - 1));
+            for (int i = 0; i < intervals.length; i++) {
+                Arrays.sort(samples[i]);
+                intervals[i] = new double[]{samples[i][low], samples[i][high]};
+            }
+            return intervals;
+        }
+
+        void print(PrintStream out) {
+            int games = seatings.size() * gamesPerSeating;
+            out.println("Games: " + games + " (" + seatings.size() + " seatings x " + gamesPerSeating + ")");
+            int stalled = getStalledGames();
+            if (stalled > 0) {
+                out.println("Stalled games: " + stalled + " (" + Math.round((stalled * 100f) / games) + "%)");
+            }
+
+            out.println();
+            out.println("Head to head - games the row strategy won when playing with the column strategy:");
+            StringBuilder header = new StringBuilder(String.format("%-12s", ""));
+            for (String strategy : strategies) {
+                header.append(String.format("%12s", strategy));
+            }
+            out.println(header);
+            for (int i = 0; i < strategies.size(); i++) {
+                StringBuilder row = new StringBuilder(String.format("%-12s", strategies.get(i)));
+                for (int j = 0; j < strategies.size(); j++) {
+                    row.append(i == j ? String.format("%12s", "-")
+                            : String.format(Locale.ROOT, "%11.1f%%", headToHead(i, j) * 100));
+                }
+                out.println(row);
+            }
+
+            out.println();
+            out.println("Wins by seat:");
+            for (int seat = 0; seat < playersPerGame; seat++) {
+                out.println(String.format(Locale.ROOT, "%d - %.1f%%", seat + 1, seatWinRate(seat) * 100));
+            }
+
+            out.println();
+            out.println(String.format(Locale.ROOT, "Ratings (%.0f%% confidence):", confidence * 100));
+            double[] ratings = ratings();
+            double[][] intervals = ratingIntervals();
+            Integer[] order = new Integer[strategies.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(ratings[b], ratings[a]));
+            for (int i : order) {
+                out.println(String.format(Locale.ROOT, "%-12s %6.0f  [%.0f, %.0f]",
+                        strategies.get(i), ratings[i], intervals[i][0], intervals[i][1]));
+            }
+        }
+
+        private int seatOf(int[] seating, int strategy) {
+            for (int seat = 0; seat < seating.length; seat++) {
+                if (seating[seat] == strategy) return seat;
+            }
+            return -1;
+        }
+    }
+}
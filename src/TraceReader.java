@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// renders games recorded by TraceRecorder in the TextLogger format
+class TraceReader {
+
+    private final TextLogger textLogger;
+    private final Long seed;
+
+    private final List<String> seats = new ArrayList<>();
+    private boolean rendering = false;
+
+    TraceReader(TextLogger textLogger, Long seed) {
+        this.textLogger = textLogger;
+        this.seed = seed;
+    }
+
+    // usage: TraceReader <traceDirectory> [gameSeed] - renders every recorded game, or only the one with that seed
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) throw new IllegalArgumentException("Usage: TraceReader <traceDirectory> [gameSeed]");
+        Long seed = args.length > 1 ? Long.parseLong(args[1]) : null;
+        new TraceReader(new TextLogger(), seed).read(Paths.get(args[0]));
+    }
+
+    void read(Path directory) throws IOException {
+        // chunk names sort by writer, then by chunk number
+        List<Path> chunks;
+        try (Stream<Path> files = Files.list(directory)) {
+            chunks = files.filter(path -> path.getFileName().toString().matches("trace-\\d+-\\d+\\.bin"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path chunk : chunks) {
+            readChunk(chunk);
+        }
+    }
+
+    private void readChunk(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.hasRemaining()) {
+                byte tag = buffer.get();
+                if (tag == TraceRecorder.END_OF_CHUNK) return;
+                readRecord(tag, buffer);
+            }
+        }
+    }
+
+    private void readRecord(byte tag, ByteBuffer buffer) {
+        switch (tag) {
+            case TraceRecorder.GAME_STARTED:
+                long gameSeed = buffer.getLong();
+                seats.clear();
+                for (int i = buffer.get(); i > 0; i--) {
+                    byte[] name = new byte[buffer.getShort()];
+                    buffer.get(name);
+                    seats.add(new String(name, StandardCharsets.UTF_8));
+                }
+                rendering = seed == null || seed == gameSeed;
+                if (rendering) System.out.println("Game seed: " + gameSeed);
+                break;
+
+            case TraceRecorder.GARDEN_REFRESHED:
+                List<Card> garden = readCards(buffer, buffer.get());
+                if (rendering) textLogger.gardenRefreshed(garden);
+                break;
+
+            case TraceRecorder.START_TURN:
+                String startName = seats.get(buffer.get());
+                buffer.getShort();
+                if (rendering) textLogger.printStartTurn(startName);
+                readPlayerStatus(buffer);
+                break;
+
+            case TraceRecorder.CARD_PLANTED:
+                byte ordinal = buffer.get();
+                if (rendering) textLogger.cardPlanted(ordinal == TraceRecorder.NO_CARD ? null : Card.byOrdinal(ordinal));
+                break;
+
+            case TraceRecorder.ACTION_CHOSEN:
+                Action action = new Action(Action.Type.values()[buffer.get()], Card.byOrdinal(buffer.get()));
+                if (rendering) textLogger.actionChosen(action);
+                break;
+
+            case TraceRecorder.END_TURN:
+                String endName = seats.get(buffer.get());
+                int turnsTaken = buffer.getShort();
+                readPlayerStatus(buffer);
+                if (rendering) textLogger.printEndTurn(endName, turnsTaken);
+                break;
+
+            case TraceRecorder.GAME_OVER:
+                String winner = seats.get(buffer.get());
+                if (rendering) textLogger.printWinner(winner);
+                break;
+
+            case TraceRecorder.GAME_STALLED:
+                int turns = buffer.getInt();
+                if (rendering) textLogger.printStalled(turns);
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown trace record: " + tag);
+        }
+    }
+
+    private void readPlayerStatus(ByteBuffer buffer) {
+        List<Card> hand = readCards(buffer, buffer.get());
+        int deckSize = buffer.getShort();
+        int discardSize = buffer.getShort();
+
+        Map<Card, Integer> counts = new EnumMap<>(Card.class);
+        for (int i = buffer.get(); i > 0; i--) {
+            Card card = Card.byOrdinal(buffer.get());
+            counts.put(card, (int) buffer.getShort());
+        }
+        if (rendering) textLogger.printPlayerStatus(hand, deckSize, discardSize, counts);
+    }
+
+    private static List<Card> readCards(ByteBuffer buffer, int size) {
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(Card.byOrdinal(buffer.get()));
+        }
+        return cards;
+    }
+}
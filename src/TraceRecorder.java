@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// records every event of every game as a compact binary stream in memory-mapped chunk files
+// a game in progress holds a writer with its own chunk sequence, trace-<writer>-<chunk>.bin, and hands it back
+// when it ends - so there are only as many writers as games ever ran at once. A checkpoint saves where every
+// writer stands, so a resumed run appends after it. Read them back with TraceReader
+class TraceRecorder implements Logger, AutoCloseable {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // record tags - zero marks the unused tail of a chunk
+    static final byte END_OF_CHUNK = 0;
+    static final byte GAME_STARTED = 1;
+    static final byte GARDEN_REFRESHED = 2;
+    static final byte START_TURN = 3;
+    static final byte CARD_PLANTED = 4;
+    static final byte ACTION_CHOSEN = 5;
+    static final byte END_TURN = 6;
+    static final byte GAME_OVER = 7;
+    static final byte GAME_STALLED = 8;
+
+    static final byte NO_CARD = -1;
+
+    private static final Set<Event> EVENTS = Collections.unmodifiableSet(EnumSet.allOf(Event.class));
+    private static final Pattern CHUNK_NAME = Pattern.compile("trace-(\\d+)-(\\d+)\\.bin");
+
+    private final Path directory;
+    private final int chunkSize;
+    private final List<Writer> writers = new ArrayList<>();
+    private final Deque<Writer> idleWriters = new ArrayDeque<>();
+
+    // writer of the game the thread is playing, only set between its start and end
+    private final ThreadLocal<Writer> writer = new ThreadLocal<>();
+
+    TraceRecorder(Path directory) {
+        this(directory, DEFAULT_CHUNK_SIZE);
+    }
+
+    TraceRecorder(Path directory, int chunkSize) {
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create trace directory: " + directory, e);
+        }
+    }
+
+    // reopens the traces a checkpoint saved with sync - events written after that are dropped, so the games a
+    // resumed run plays again aren't traced twice
+    static TraceRecorder resume(Path directory, int[] positions) {
+        TraceRecorder recorder = new TraceRecorder(directory);
+        int writers = positions.length / 2;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.collect(Collectors.toList())) {
+                Matcher name = CHUNK_NAME.matcher(path.getFileName().toString());
+                if (!name.matches()) continue;
+                int writerId = Integer.parseInt(name.group(1));
+                if (writerId >= writers || Integer.parseInt(name.group(2)) > positions[writerId * 2]) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not resume traces: " + directory, e);
+        }
+
+        for (int id = 0; id < writers; id++) {
+            Writer resumed = recorder.new Writer(id);
+            resumed.reopenChunk(positions[id * 2], positions[id * 2 + 1]);
+            recorder.writers.add(resumed);
+            recorder.idleWriters.addLast(resumed);
+        }
+        return recorder;
+    }
+
+    static String chunkName(int writerId, int chunk) {
+        return String.format("trace-%03d-%06d.bin", writerId, chunk);
+    }
+
+    private synchronized Writer acquireWriter() {
+        Writer idle = idleWriters.pollFirst();
+        if (idle != null) return idle;
+        Writer newWriter = new Writer(writers.size());
+        writers.add(newWriter);
+        return newWriter;
+    }
+
+    private void releaseWriter() {
+        Writer current = writer.get();
+        writer.remove();
+        synchronized (this) {
+            idleWriters.addFirst(current);
+        }
+    }
+
+    private Writer current() {
+        Writer current = writer.get();
+        if (current == null) throw new IllegalStateException("Trace event outside a started game");
+        return current;
+    }
+
+    // makes the events so far durable - call while no game is being traced, e.g. between batches. Returns the
+    // chunk and position in it of every writer, for resume
+    synchronized int[] sync() {
+        int[] positions = new int[writers.size() * 2];
+        for (Writer each : writers) {
+            each.sync(positions);
+        }
+        return positions;
+    }
+
+    // call once all games are finished - trims each writer's last chunk to the data written
+    @Override
+    public synchronized void close() {
+        for (Writer each : writers) {
+            each.closeChunk();
+        }
+        writers.clear();
+        idleWriters.clear();
+    }
+
+    @Override
+    public Set<Event> getEvents() {
+        return EVENTS;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        // a game that failed part way keeps its writer, so the thread's next game carries on with it
+        Writer current = writer.get();
+        if (current == null) {
+            current = acquireWriter();
+            writer.set(current);
+        }
+        current.gameStarted(game);
+    }
+
+    @Override
+    public void gardenRefreshed(List<Card> garden) {
+        MappedByteBuffer buffer = current().reserve(2 + garden.size());
+        buffer.put(GARDEN_REFRESHED);
+        buffer.put((byte) garden.size());
+        for (Card card : garden) {
+            buffer.put((byte) card.ordinal());
+        }
+    }
+
+    @Override
+    public void startTurn(Player player) {
+        current().playerStatus(START_TURN, player);
+    }
+
+    @Override
+    public void cardPlanted(Card card) {
+        MappedByteBuffer buffer = current().reserve(2);
+        buffer.put(CARD_PLANTED);
+        buffer.put(card == null ? NO_CARD : (byte) card.ordinal());
+    }
+
+    @Override
+    public void actionChosen(Action action) {
+        MappedByteBuffer buffer = current().reserve(3);
+        buffer.put(ACTION_CHOSEN);
+        buffer.put((byte) action.getType().ordinal());
+        buffer.put((byte) action.getCard().ordinal());
+    }
+
+    @Override
+    public void endTurn(Player player) {
+        current().playerStatus(END_TURN, player);
+    }
+
+    @Override
+    public void gameOver(Game game) {
+        Writer current = current();
+        MappedByteBuffer buffer = current.reserve(2);
+        buffer.put(GAME_OVER);
+        buffer.put(current.seat(game.getCurrentPlayer()));
+        releaseWriter();
+    }
+
+    @Override
+    public void gameStalled(Game game) {
+        MappedByteBuffer buffer = current().reserve(5);
+        buffer.put(GAME_STALLED);
+        buffer.putInt(game.getNumberOfTurnsTaken());
+        releaseWriter();
+    }
+
+    private class Writer {
+
+        private final int id;
+        private final List<Player> seats = new ArrayList<>();
+        private int chunk = 0;
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+
+        private Writer(int id) {
+            this.id = id;
+        }
+
+        private void gameStarted(Game game) {
+            seats.clear();
+            seats.addAll(game.getPlayers());
+
+            List<byte[]> names = new ArrayList<>();
+            int size = 10;
+            for (Player player : seats) {
+                byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                size += 2 + name.length;
+            }
+
+            MappedByteBuffer buffer = reserve(size);
+            buffer.put(GAME_STARTED);
+            buffer.putLong(game.getSeed());
+            buffer.put((byte) names.size());
+            for (byte[] name : names) {
+                buffer.putShort((short) name.length);
+                buffer.put(name);
+            }
+        }
+
+        // hand cards, zone sizes and the count of every card type the player owns
+        private void playerStatus(byte tag, Player player) {
+            MappedByteBuffer buffer = reserve(9 + player.getHandSize() + 3 * Card.count());
+            buffer.put(tag);
+            buffer.put(seat(player));
+            buffer.putShort((short) player.getNumberOfTurnsTaken());
+            buffer.put((byte) player.getHandSize());
+            for (int i = 0; i < Card.count(); i++) {
+                for (int j = player.countInHand(Card.byOrdinal(i)); j > 0; j--) {
+                    buffer.put((byte) i);
+                }
+            }
+            buffer.putShort((short) player.getDeckSize());
+            buffer.putShort((short) player.getDiscardSize());
+
+            int types = 0;
+            for (int i = 0; i < Card.count(); i++) {
+                if (player.countCard(Card.byOrdinal(i)) > 0) types ++;
+            }
+            buffer.put((byte) types);
+            for (int i = 0; i < Card.count(); i++) {
+                int count = player.countCard(Card.byOrdinal(i));
+                if (count == 0) continue;
+                buffer.put((byte) i);
+                buffer.putShort((short) count);
+            }
+        }
+
+        private byte seat(Player player) {
+            int seat = seats.indexOf(player);
+            if (seat < 0) throw new IllegalStateException("Player not seated in traced game: " + player.getName());
+            return (byte) seat;
+        }
+
+        // buffer with room for the next record, rolling over to a new chunk if needed
+        private MappedByteBuffer reserve(int size) {
+            if (size >= chunkSize) throw new IllegalStateException("Trace record larger than chunk: " + size);
+            if (buffer == null || buffer.remaining() < size + 1) {
+                closeChunk();
+                openChunk();
+            }
+            return buffer;
+        }
+
+        private void sync(int[] positions) {
+            if (buffer == null) {
+                positions[id * 2] = chunk;
+                return;
+            }
+            buffer.force();
+            positions[id * 2] = chunk - 1;
+            positions[id * 2 + 1] = buffer.position();
+        }
+
+        // carries on writing a chunk at a synced position, cutting off whatever was written after it
+        private void reopenChunk(int chunk, int position) {
+            this.chunk = chunk;
+            if (position == 0) return;
+
+            Path path = directory.resolve(chunkName(id, this.chunk++));
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.truncate(position);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, chunkSize);
+                buffer.position(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not reopen trace chunk: " + path, e);
+            }
+        }
+
+        private void openChunk() {
+            Path path = directory.resolve(chunkName(id, chunk++));
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, chunkSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open trace chunk: " + path, e);
+            }
+        }
+
+        private void closeChunk() {
+            if (channel == null) return;
+            try {
+                buffer.force();
+                channel.truncate(buffer.position());
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close trace chunk", e);
+            }
+            channel = null;
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+// inverse of every change made to a game since undo was enabled, as flat arrays of target, operation and
+// argument - search applies a move, explores, and takes it back without copying the game
+class UndoLog {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Undoable[] targets = new Undoable[INITIAL_CAPACITY];
+    private int[] operations = new int[INITIAL_CAPACITY];
+    private int[] arguments = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // log size at the start of each move still applied
+    private int[] marks = new int[16];
+    private int depth = 0;
+
+    private boolean undoing = false;
+
+    // changes made while taking moves back aren't logged again
+    void record(Undoable target, int operation, int argument) {
+        if (undoing) return;
+        if (size == targets.length) {
+            targets = Arrays.copyOf(targets, size * 2);
+            operations = Arrays.copyOf(operations, size * 2);
+            arguments = Arrays.copyOf(arguments, size * 2);
+        }
+        targets[size] = target;
+        operations[size] = operation;
+        arguments[size] = argument;
+        size ++;
+    }
+
+    void mark() {
+        if (depth == marks.length) marks = Arrays.copyOf(marks, depth * 2);
+        marks[depth++] = size;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    // revert everything since the last mark, newest first
+    void undo() {
+        if (depth == 0) throw new IllegalStateException("No move to undo");
+        int mark = marks[--depth];
+        undoing = true;
+        try {
+            while (size > mark) {
+                size --;
+                targets[size].revert(operations[size], arguments[size]);
+                targets[size] = null;
+            }
+        } finally {
+            undoing = false;
+        }
+    }
+
+    // forget every move - the current state becomes the one there is no going back from
+    void clear() {
+        Arrays.fill(targets, 0, size, null);
+        size = 0;
+        depth = 0;
+    }
+
+    interface Undoable {
+
+        void revert(int operation, int argument);
+    }
+}